@@ -4,12 +4,13 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.TreeMap;
+import java.util.Map;
 import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
 
 import com.google.common.base.Stopwatch;
 
+import net.calebswalker.util.BoardResults;
 import net.calebswalker.util.FileHelper;
 
 public class AlgorithmTester {
@@ -27,32 +28,58 @@ public class AlgorithmTester {
 		algorithmsToTest.add(new Standard1RotationConservedAlgorithm());
 		algorithmsToTest.add(new Standard2RotationConservedAlgorithm());
 		algorithmsToTest.add(new StandardDiscoveryConservedAlgorithm());
+		algorithmsToTest.add(new StandardDecompositionAlgorithm());
 		
 		algorithmsToTest.add(new StandardParallelAlgorithm(2));
 		algorithmsToTest.add(new StandardParallelAlgorithm(4));
 		algorithmsToTest.add(new StandardParallelAlgorithm(6));
 		algorithmsToTest.add(new StandardParallelAlgorithm(8));
 		
+		algorithmsToTest.add(new StandardForkJoinAlgorithm(2));
+		algorithmsToTest.add(new StandardForkJoinAlgorithm(4));
+		algorithmsToTest.add(new StandardForkJoinAlgorithm(6));
+		algorithmsToTest.add(new StandardForkJoinAlgorithm(8));
+		
 		algorithmsToTest.add(new StandardConservedParallelAlgorithm(2));
 		algorithmsToTest.add(new StandardConservedParallelAlgorithm(4));
 		algorithmsToTest.add(new StandardConservedParallelAlgorithm(6));
 		algorithmsToTest.add(new StandardConservedParallelAlgorithm(8));
 		
+		algorithmsToTest.add(new StandardConservedTaskParallelAlgorithm(2));
+		algorithmsToTest.add(new StandardConservedTaskParallelAlgorithm(4));
+		algorithmsToTest.add(new StandardConservedTaskParallelAlgorithm(6));
+		algorithmsToTest.add(new StandardConservedTaskParallelAlgorithm(8));
+		
 		algorithmsToTest.add(new Standard1RotationConservedParallelAlgorithm(2));
 		algorithmsToTest.add(new Standard1RotationConservedParallelAlgorithm(4));
 		algorithmsToTest.add(new Standard1RotationConservedParallelAlgorithm(6));
 		algorithmsToTest.add(new Standard1RotationConservedParallelAlgorithm(8));
 		
+		algorithmsToTest.add(new Standard1RotationConservedTaskParallelAlgorithm(2));
+		algorithmsToTest.add(new Standard1RotationConservedTaskParallelAlgorithm(4));
+		algorithmsToTest.add(new Standard1RotationConservedTaskParallelAlgorithm(6));
+		algorithmsToTest.add(new Standard1RotationConservedTaskParallelAlgorithm(8));
+		
 		algorithmsToTest.add(new Standard2RotationConservedParallelAlgorithm(2));
 		algorithmsToTest.add(new Standard2RotationConservedParallelAlgorithm(4));
 		algorithmsToTest.add(new Standard2RotationConservedParallelAlgorithm(6));
 		algorithmsToTest.add(new Standard2RotationConservedParallelAlgorithm(8));
 		
+		algorithmsToTest.add(new Standard2RotationConservedTaskParallelAlgorithm(2));
+		algorithmsToTest.add(new Standard2RotationConservedTaskParallelAlgorithm(4));
+		algorithmsToTest.add(new Standard2RotationConservedTaskParallelAlgorithm(6));
+		algorithmsToTest.add(new Standard2RotationConservedTaskParallelAlgorithm(8));
+		
 		algorithmsToTest.add(new StandardDiscoveryConservedParallelAlgorithm(2));
 		algorithmsToTest.add(new StandardDiscoveryConservedParallelAlgorithm(4));
 		algorithmsToTest.add(new StandardDiscoveryConservedParallelAlgorithm(6));
 		algorithmsToTest.add(new StandardDiscoveryConservedParallelAlgorithm(8));
 		
+		algorithmsToTest.add(new StandardDiscoveryConservedTaskParallelAlgorithm(2));
+		algorithmsToTest.add(new StandardDiscoveryConservedTaskParallelAlgorithm(4));
+		algorithmsToTest.add(new StandardDiscoveryConservedTaskParallelAlgorithm(6));
+		algorithmsToTest.add(new StandardDiscoveryConservedTaskParallelAlgorithm(8));
+		
 		assert allTrials.length == allMaxSizes.length;
 		
 		for (int n = 0; n < allTrials.length; n++) {
@@ -64,9 +91,11 @@ public class AlgorithmTester {
 			for (TestCaseAlgorithm testAlgorithm : algorithmsToTest) {
 				System.out.print("Testing " + testAlgorithm.getAlgorithmName() + "... ");
 				ArrayList<Long> results = new ArrayList<>();
+				PruningTotals pruning = null;
 				
 				for (int i = 0; i < trials; i++) {
-					long amnt = evaluate(testAlgorithm, maxSize);
+					pruning = new PruningTotals();
+					long amnt = evaluate(testAlgorithm, maxSize, pruning);
 					if (amnt >= 0) {
 						results.add(amnt);
 					}
@@ -74,41 +103,42 @@ public class AlgorithmTester {
 						break;
 					}
 				}
-				appendToFile(testAlgorithm, maxSize, results);
-				System.out.println("Complete.");
+				appendToFile(testAlgorithm, maxSize, results, pruning);
+				System.out.println("Complete. " + pruning);
 			}
 			System.out.println("==================================");
 		}
 		System.out.println("All Trials Complete!");
 	}
 	
-	private static long evaluate(TestCaseAlgorithm algorithm, int maxSize) throws IOException {
+	private static long evaluate(TestCaseAlgorithm algorithm, int maxSize, PruningTotals pruning) throws IOException {
 		Stopwatch stopwatch = Stopwatch.createUnstarted();
-		TreeMap<Integer, TreeSet<Integer>> totalTrues = new TreeMap<>();
-		TreeMap<Integer, TreeSet<Integer>> totalFalses = new TreeMap<>();
+		BoardResults results = new BoardResults();
+		algorithm.setMetrics(pruning);
 		
 		stopwatch.start();
-		algorithm.run(maxSize, totalTrues, totalFalses);
+		algorithm.run(maxSize, results);
 		stopwatch.stop();
 		long ms = stopwatch.elapsed(TimeUnit.MILLISECONDS);
-		if (vaildateData(totalTrues, totalFalses)) {
+		if (vaildateData(results.truesView(), results.falsesView())) {
 			return ms;
 		}
 		return -1;
 	}
 	
-	private static void appendToFile(TestCaseAlgorithm algorithm, int maxSize, ArrayList<Long> times) throws IOException {
+	private static void appendToFile(TestCaseAlgorithm algorithm, int maxSize, ArrayList<Long> times, PruningTotals pruning) throws IOException {
 		
 		FileWriter writer = new FileWriter("results.txt", true);
 		PrintWriter printWriter = new PrintWriter(writer);
 		printWriter.println(algorithm.getAlgorithmName());
 		printWriter.println(maxSize + " boards");
 		printWriter.println(times.toString());
+		printWriter.println(pruning);
 		printWriter.println("=========================");
 		printWriter.close();
 	}
 	
-	private static boolean vaildateData(TreeMap<Integer, TreeSet<Integer>> truesToCheck, TreeMap<Integer, TreeSet<Integer>> falsesToCheck) {
+	private static boolean vaildateData(Map<Integer, TreeSet<Integer>> truesToCheck, Map<Integer, TreeSet<Integer>> falsesToCheck) {
 		for (int size : truesToCheck.keySet()) {
 			TreeSet<Integer> trues = truesToCheck.get(size);
 			TreeSet<Integer> actualTrues = FileHelper.getTrues(size);
@@ -0,0 +1,69 @@
+package net.calebswalker.algorithms;
+
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * Keeps the base matching of the parallel conserved algorithms a board size ahead of the workers. The matching only
+ * depends on the graph, not on which vertices turned out true, so the next size's matching can be extended on a graph
+ * of its own while the workers are still checking the current size. The mates alternate between two arrays: the one
+ * the workers load from and the one being prepared.
+ */
+final class BaseMatchingPipeline {
+
+	private final DivisorGraph graph;
+	private final DeletionOracle oracle;
+	private int[] mates;
+	private int[] nextMates;
+	private int matchingSize;
+	private int nextMatchingSize;
+	private int preparedSize; // The size nextMates belongs to, 0 if nothing is prepared
+
+	BaseMatchingPipeline(DivisorSieve sieve, int maxSize) {
+		graph = new DivisorGraph(sieve, maxSize);
+		oracle = new DeletionOracle(new BlossomMatching(graph));
+		mates = new int[maxSize + 1];
+		nextMates = new int[maxSize + 1];
+	}
+
+	// Starts after a known board; its matching becomes the current one
+	int seed(Checkpoint seed) {
+		graph.growTo(seed.getSize());
+		matchingSize = TestCaseAlgorithm.seedBaseMatching(oracle, seed);
+		oracle.getMatching().copyMatesInto(mates);
+		return matchingSize;
+	}
+
+	// Extends the matching to the given size, leaving the current one alone
+	void prepare(int size) {
+		if (preparedSize == size)
+			return;
+		graph.growTo(size);
+		nextMatchingSize = oracle.extendBaseMatching();
+		oracle.getMatching().copyMatesInto(nextMates);
+		preparedSize = size;
+	}
+
+	// Makes the matching of the given size the current one, preparing it first if that has not happened yet
+	int advance(int size) {
+		prepare(size);
+		int[] previous = mates;
+		mates = nextMates;
+		nextMates = previous;
+		matchingSize = nextMatchingSize;
+		preparedSize = 0;
+		return matchingSize;
+	}
+
+	// Must not be written to; the workers load their base matching from it
+	int[] getMates() {
+		return mates;
+	}
+
+	int getMatchingSize() {
+		return matchingSize;
+	}
+}
@@ -0,0 +1,83 @@
+package net.calebswalker.algorithms;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import net.calebswalker.util.BoardFiles;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.BoardResults;
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * Writes "F&M Boards 4-N.txt" and its board database for any N, into the current or a given directory. The sizes are
+ * split into ranges that are computed in parallel by the decomposition algorithm, and every range is written out, in
+ * order, as soon as the ranges before it are. Only a few ranges are held in memory at any time.
+ */
+public class BoardGenerator {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: BoardGenerator <max size> [threads] [sizes per range] [output directory]");
+			return;
+		}
+		int maxSize = Integer.parseInt(args[0]);
+		int threadCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int rangeSize = args.length > 2 ? Integer.parseInt(args[2]) : 250;
+		Path directory = Paths.get(args.length > 3 ? args[3] : "");
+
+		try (BoardFiles files = new BoardFiles(directory, maxSize)) {
+			generate(maxSize, threadCount, rangeSize, files);
+			files.commit();
+			System.out.println("Wrote " + files.getTextFile() + " and " + files.getDatabaseFile() + ".");
+		}
+	}
+
+	public static void generate(int maxSize, int threadCount, int rangeSize, BoardResultSink sink) throws IOException {
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("Must have positive number of threads!");
+		}
+		if (rangeSize <= 0) {
+			throw new IllegalArgumentException("Must have positive number of sizes per range!");
+		}
+
+		// Sieved once up front, so the workers only ever read it
+		DivisorSieve.shared(maxSize);
+
+		ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+		Deque<Future<BoardResults>> pending = new ArrayDeque<>();
+		int next = 4;
+
+		try {
+			while (next <= maxSize || !pending.isEmpty()) {
+				while (next <= maxSize && pending.size() < threadCount * 2) {
+					final int fromSize = next;
+					final int toSize = (int) Math.min(maxSize, (long) next + rangeSize - 1);
+					pending.add(pool.submit(() -> {
+						BoardResults range = new BoardResults();
+						new StandardDecompositionAlgorithm().run(fromSize, toSize, range);
+						return range;
+					}));
+					next = toSize + 1;
+				}
+
+				BoardResults range = pending.poll().get();
+				for (int size = range.getFirstSize(); size <= range.getLastSize(); size++)
+					sink.accept(size, range.truesAt(size), range.falsesAt(size));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating boards!", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Generating boards failed!", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
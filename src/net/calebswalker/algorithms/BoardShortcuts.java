@@ -0,0 +1,68 @@
+package net.calebswalker.algorithms;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * Sizes whose trues and falses follow directly from the previous size, without building any matching.
+ * Each rule updates the previous size's sets in place and returns true if it decided the new size.
+ */
+public class BoardShortcuts {
+
+	public interface Rule {
+		boolean apply(int size, BitSet trues, BitSet falses);
+	}
+
+	private final int minSize;
+	private final List<Rule> rules = new ArrayList<>();
+
+	public BoardShortcuts(DivisorSieve sieve) {
+		this(12);
+
+		addRule((size, trues, falses) -> { // Prime special case
+			if (!sieve.isPrime(size))
+				return false;
+			trues.set(size);
+			return true;
+		});
+
+		addRule((size, trues, falses) -> { // Twice a prime special case
+			// (size & 2) is kept as it always was, so from size 12 on this never actually fires
+			if ((size & 2) != 0 || !sieve.isPrime(size / 2))
+				return false;
+			falses.set(size);
+			if (falses.get(2)) {
+				falses.set(size / 2);
+				trues.clear(size / 2);
+			}
+			else {
+				trues.set(size / 2);
+				falses.clear(size / 2);
+			}
+			return true;
+		});
+	}
+
+	public BoardShortcuts(int minSize) {
+		this.minSize = minSize;
+	}
+
+	public BoardShortcuts addRule(Rule rule) {
+		rules.add(rule);
+		return this;
+	}
+
+	public boolean apply(int size, BitSet trues, BitSet falses) {
+		if (size < minSize)
+			return false;
+
+		for (Rule rule : rules) {
+			if (rule.apply(size, trues, falses))
+				return true;
+		}
+		return false;
+	}
+}
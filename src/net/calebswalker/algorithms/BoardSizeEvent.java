@@ -0,0 +1,37 @@
+package net.calebswalker.algorithms;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Flight Recorder event for one finished board size, begun and committed by SizeCounter
+@Name("net.calebswalker.BoardSize")
+@Label("Board Size")
+@Category({ "F&M", "Algorithms" })
+@Description("One board size computed by an algorithm")
+@StackTrace(false)
+final class BoardSizeEvent extends Event {
+
+	@Label("Algorithm")
+	String algorithm;
+
+	@Label("Size")
+	int size;
+
+	@Label("Shortcut")
+	@Description("Whether a shortcut rule decided the whole size")
+	boolean shortcut;
+
+	@Label("Checked")
+	@Description("Vertices decided by a matching of their own")
+	int checked;
+
+	@Label("Trues")
+	int trues;
+
+	@Label("Falses")
+	int falses;
+}
@@ -0,0 +1,53 @@
+package net.calebswalker.algorithms;
+
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * The vertices of one board size still waiting for a check, shared by the workers without a lock. Taking a vertex and
+ * settling one early (because another worker proved it true) both just clear its bit, so either is seen by every worker
+ * at once. Bits are never set again, so once a word is empty the workers move the shared cursor past it for good.
+ */
+final class CandidateQueue {
+
+	private final AtomicLongArray words;
+	private final AtomicInteger cursor = new AtomicInteger();
+
+	CandidateQueue(BitSet candidates) {
+		words = new AtomicLongArray(candidates.toLongArray());
+	}
+
+	// Takes the lowest vertex still waiting, or returns -1 when there are none left
+	int poll() {
+		int w = cursor.get();
+		while (w < words.length()) {
+			long word = words.get(w);
+			if (word == 0) {
+				cursor.compareAndSet(w, w + 1);
+				w = cursor.get();
+				continue;
+			}
+			long lowest = word & -word;
+			if (words.compareAndSet(w, word, word & ~lowest))
+				return (w << 6) + Long.numberOfTrailingZeros(lowest);
+		}
+		return -1;
+	}
+
+	// Settles v without a check, returning false if it had already been taken or settled
+	boolean remove(int v) {
+		int w = v >> 6;
+		if (w >= words.length())
+			return false;
+
+		long bit = 1L << v;
+		long word;
+		do {
+			word = words.get(w);
+			if ((word & bit) == 0)
+				return false;
+		} while (!words.compareAndSet(w, word, word & ~bit));
+		return true;
+	}
+}
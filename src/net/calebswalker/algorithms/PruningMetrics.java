@@ -0,0 +1,18 @@
+package net.calebswalker.algorithms;
+
+/*
+ * How an algorithm decided the vertices of each board size, reported once per finished size, in order and from the
+ * thread that called the algorithm. Every vertex 1..size is counted in exactly one of:
+ *   shortcut    the whole size followed from the previous one by a BoardShortcuts rule
+ *   conserved   kept its status from the previous size, or was decided directly (vertex 1, the new vertex) without a matching
+ *   propagated  marked true by rotation or discovery before its own check came up
+ *   matched     decided by a matching of its own (the decomposition algorithm decides every vertex from one matching)
+ * matchingNanos is the time spent computing and repairing matchings, summed over the worker threads of the parallel
+ * algorithms; totalNanos is the wall time of the whole size. What is left over is bookkeeping.
+ */
+public interface PruningMetrics {
+
+	PruningMetrics NONE = (size, shortcut, conserved, propagated, matched, matchingNanos, totalNanos) -> {};
+
+	void record(int size, int shortcut, int conserved, int propagated, int matched, long matchingNanos, long totalNanos);
+}
@@ -0,0 +1,61 @@
+package net.calebswalker.algorithms;
+
+import java.util.concurrent.TimeUnit;
+
+// Sums the per-size metrics of a run
+public class PruningTotals implements PruningMetrics {
+
+	private int sizes;
+	private long shortcut;
+	private long conserved;
+	private long propagated;
+	private long matched;
+	private long matchingNanos;
+	private long totalNanos;
+
+	@Override
+	public void record(int size, int shortcut, int conserved, int propagated, int matched, long matchingNanos, long totalNanos) {
+		this.sizes++;
+		this.shortcut += shortcut;
+		this.conserved += conserved;
+		this.propagated += propagated;
+		this.matched += matched;
+		this.matchingNanos += matchingNanos;
+		this.totalNanos += totalNanos;
+	}
+
+	public int getSizes() {
+		return sizes;
+	}
+
+	public long getShortcut() {
+		return shortcut;
+	}
+
+	public long getConserved() {
+		return conserved;
+	}
+
+	public long getPropagated() {
+		return propagated;
+	}
+
+	public long getMatched() {
+		return matched;
+	}
+
+	public long getMatchingNanos() {
+		return matchingNanos;
+	}
+
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		return sizes + " sizes, vertices by shortcut " + shortcut + ", conserved " + conserved + ", propagated " + propagated
+				+ ", matched " + matched + ", matching " + TimeUnit.NANOSECONDS.toMillis(matchingNanos) + " ms of "
+				+ TimeUnit.NANOSECONDS.toMillis(totalNanos) + " ms";
+	}
+}
@@ -0,0 +1,88 @@
+package net.calebswalker.algorithms;
+
+import java.util.BitSet;
+
+// Counts one board size at a time for a PruningMetrics, and records it as a BoardSizeEvent when Flight Recorder asks for one
+final class SizeCounter {
+
+	private final String algorithm;
+	private final PruningMetrics metrics;
+	private BoardSizeEvent event;
+
+	private int size;
+	private long startNanos;
+	private int candidates;
+	private int matched;
+	private long matchingNanos;
+
+	SizeCounter(TestCaseAlgorithm algorithm) {
+		this(algorithm, algorithm.getMetrics());
+	}
+
+	SizeCounter(TestCaseAlgorithm algorithm, PruningMetrics metrics) {
+		this.algorithm = algorithm.getAlgorithmName();
+		this.metrics = metrics;
+	}
+
+	void startSize(int size) {
+		this.size = size;
+		startNanos = System.nanoTime();
+		candidates = 0;
+		matched = 0;
+		matchingNanos = 0;
+		event = new BoardSizeEvent();
+		event.begin();
+	}
+
+	// The size was decided by a shortcut rule and is already done
+	void shortcut(BitSet trues, BitSet falses) {
+		record(size, 0, 0, 0, 0, System.nanoTime() - startNanos);
+		commitEvent(true, trues, falses);
+	}
+
+	// The vertices still to be checked before any propagation; the rest of the board counts as conserved
+	void candidates(BitSet toCheck) {
+		candidates = toCheck.cardinality();
+	}
+
+	void candidates(int count) {
+		candidates = count;
+	}
+
+	// Adds the time since started (from System.nanoTime()) to the matching time
+	void matching(long started) {
+		matchingNanos += System.nanoTime() - started;
+	}
+
+	void checked() {
+		matched++;
+	}
+
+	void addChecks(int count, long nanos) {
+		matched += count;
+		matchingNanos += nanos;
+	}
+
+	// Candidates that never got their own check were decided by propagation
+	void finish(BitSet trues, BitSet falses) {
+		record(0, size - candidates, candidates - matched, matched, matchingNanos, System.nanoTime() - startNanos);
+		commitEvent(false, trues, falses);
+	}
+
+	private void record(int shortcut, int conserved, int propagated, int matched, long matchingNanos, long totalNanos) {
+		metrics.record(size, shortcut, conserved, propagated, matched, matchingNanos, totalNanos);
+	}
+
+	private void commitEvent(boolean shortcut, BitSet trues, BitSet falses) {
+		event.end();
+		if (!event.shouldCommit())
+			return;
+		event.algorithm = algorithm;
+		event.size = size;
+		event.shortcut = shortcut;
+		event.checked = matched;
+		event.trues = trues.cardinality();
+		event.falses = falses.cardinality();
+		event.commit();
+	}
+}
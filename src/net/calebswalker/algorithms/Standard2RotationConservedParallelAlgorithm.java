@@ -2,16 +2,15 @@ package net.calebswalker.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.interfaces.MatchingAlgorithm.Matching;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class Standard2RotationConservedParallelAlgorithm extends TestCaseAlgorithm {
 
@@ -29,243 +28,232 @@ public class Standard2RotationConservedParallelAlgorithm extends TestCaseAlgorit
 		this.threadCount = threadCount;
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, null);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, seed);
+	}
+	
+	private void run(int maxValue, BoardResultSink sink, Checkpoint seed) throws IOException {
 		int minSize = 4;
 		final int maxSize = maxValue;
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final List<DefaultUndirectedGraph<Integer, DefaultEdge>> threadGraphs = new ArrayList<>();
-		Matching<Integer, DefaultEdge> oldMatching = null;
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final List<DeletionOracle> threadOracles = new ArrayList<>();
+		final BaseMatchingPipeline baseMatching = new BaseMatchingPipeline(sieve, maxSize);
 		
+		// One graph for every thread, each deleting vertices through a mask of its own
 		for (int i = 0; i < threadCount; i++) {
-			threadGraphs.add(new DefaultUndirectedGraph<>(DefaultEdge.class));
+			threadOracles.add(new DeletionOracle(new BlossomMatching(i == 0 ? graph : graph.maskedView())));
 		}
 		
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			for (DefaultUndirectedGraph<Integer, DefaultEdge> graph : threadGraphs) {
-				graph.addVertex(size);
-				for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-					if (size == j)
-						continue;
-					if (size % j == 0) {
-						graph.addEdge(j, size);
-						if (j != 1) {
-							graph.addEdge(size / j, size);
-						}
-					}
-				}
-			}
-			
-			if (threadGraphs.get(0).degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
-			
-			if (size < minSize)
-				continue;
+		int startSize = 1;
+		
+		if (seed != null) { // Pick up after a board that is already known
+			if (seed.getSize() >= maxSize)
+				return;
+			startSize = seed.getSize() + 1;
+			graph.growTo(seed.getSize());
 			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
+			oldTrues = seed.getTrues();
+			oldFalses = seed.getFalses();
+			baseMatching.seed(seed);
+		}
+		
+		try (WorkerPool workers = new WorkerPool(threadCount)) {
+			for (int size = startSize; size <= maxSize; size++) { // Set size = 1 for full board else 2
+				sizeCounter.startSize(size);
+				graph.addVertex();
+				
+				if (size < minSize)
 					continue;
-				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
-					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
-					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
+				
+				if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+					sizeCounter.shortcut(oldTrues, oldFalses);
+					sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
 					continue;
 				}
-			}
-			
-			TreeSet<Integer> trues;
-			TreeSet<Integer> falses;
-			TreeSet<Integer> toCheck;
-			
-			DefaultUndirectedGraph<Integer, DefaultEdge> graph = threadGraphs.get(0);
-			
-			if (oldTrues != null) { // We got some stuff to work with
-				Set<Integer> neighbors = Graphs.neighborSetOf(graph, size);
-				if (oldFalses.containsAll(neighbors)) { // Size is true
-					trues = oldTrues;
-					trues.add(size);
-					
-					falses = new TreeSet<>();
-					toCheck = new TreeSet<>(oldFalses);
-					
-					falses.add(1);
-					toCheck.remove(1);
-					
-					// Partial rotate
-					TreeMap<Integer, Integer> theMatching = new TreeMap<>();
-					for (DefaultEdge e : oldMatching) {
-						int target = graph.getEdgeTarget(e);
-						int source = graph.getEdgeSource(e);
+				
+				BitSet trues;
+				BitSet falses;
+				BitSet toCheck;
+				
+				if (oldTrues != null) { // We got some stuff to work with
+					BitSet neighbors = graph.neighborMaskOf(size);
+					if (containsAll(oldFalses, neighbors)) { // Size is true
+						trues = oldTrues;
+						trues.set(size);
 						
-						theMatching.put(target, source);
-						theMatching.put(source, target);
-					}
-					
-					TreeSet<Integer> phase2Rotate = new TreeSet<>();
-					for (int n : neighbors) {
-						int pair = theMatching.get(n);
+						falses = new BitSet();
+						toCheck = (BitSet) oldFalses.clone();
 						
-						trues.add(pair);
-						toCheck.remove(pair);
-						phase2Rotate.add(pair);
-					}
-					
-					for (int n : phase2Rotate) {
-						Set<Integer> locals = Graphs.neighborSetOf(graph, n);
-						for (int l : locals) {
-							if (!theMatching.containsKey(l))
+						falses.set(1);
+						toCheck.clear(1);
+						sizeCounter.candidates(toCheck);
+						
+						// Partial rotate, through the previous size's matching
+						int[] oldMatching = baseMatching.getMates();
+						BitSet phase2Rotate = new BitSet();
+						for (int n = neighbors.nextSetBit(0); n >= 0; n = neighbors.nextSetBit(n + 1)) {
+							int pair = oldMatching[n];
+							if (pair == 0)
 								continue;
-							int pair = theMatching.get(l);
 							
-							trues.add(pair);
-							toCheck.remove(pair);
+							trues.set(pair);
+							toCheck.clear(pair);
+							phase2Rotate.set(pair);
+						}
+						
+						for (int n = phase2Rotate.nextSetBit(0); n >= 0; n = phase2Rotate.nextSetBit(n + 1)) {
+							for (int l : graph.neighborsOf(n)) {
+								int pair = oldMatching[l];
+								if (pair == 0)
+									continue;
+								
+								trues.set(pair);
+								toCheck.clear(pair);
+							}
 						}
 					}
+					else { // Size is false
+						falses = oldFalses;
+						falses.set(size);
+						
+						trues = new BitSet();
+						toCheck = (BitSet) oldTrues.clone();
+						sizeCounter.candidates(toCheck);
+					}
 				}
-				else { // Size is false
-					falses = oldFalses;
-					falses.add(size);
+				else { // We don't have anything to start from
+					trues = new BitSet();
+					falses = new BitSet();
+					toCheck = new BitSet();
+					toCheck.set(2, size + 1);
 					
-					trues = new TreeSet<>();
-					toCheck = new TreeSet<>(oldTrues);
+					falses.set(1);
+					toCheck.clear(1);
+					sizeCounter.candidates(toCheck);
 				}
-			}
-			else { // We don't have anything to start from
-				trues = new TreeSet<>();
-				falses = new TreeSet<>();
-				toCheck = new TreeSet<>();
-				for (int i = 2; i <= size; i++)
-					toCheck.add(i);
 				
-				falses.add(1);
-				toCheck.remove(1);
-			}
-			
-			EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-			oldMatching = defaultMatching.getMatching();
-			final double oldWeight = oldMatching.getWeight();
-			
-			List<GeneratorThread> createdThreads = new ArrayList<>();
-			
-			for (int i = 0; i < threadCount; i++) {
-				GeneratorThread newThread = new GeneratorThread(threadGraphs.get(i), toCheck, oldWeight);
-				createdThreads.add(newThread);
-				newThread.start();
-			}
-			
-			try {
-				for (GeneratorThread generatorThread : createdThreads) {
-					generatorThread.join();
-					trues.addAll(generatorThread.trues);
-					falses.addAll(generatorThread.falses);
+				long matchingStarted = System.nanoTime();
+				final int oldMatchingSize = baseMatching.advance(size);
+				sizeCounter.matching(matchingStarted);
+				
+				List<GeneratorTask> tasks = new ArrayList<>();
+				CandidateQueue candidates = new CandidateQueue(toCheck);
+				
+				for (int i = 0; i < threadCount; i++) {
+					tasks.add(new GeneratorTask(threadOracles.get(i), candidates, baseMatching.getMates(), oldMatchingSize));
+				}
+				
+				workers.start(tasks);
+				if (size < maxSize) { // The next size's matching doesn't depend on this size's results
+					matchingStarted = System.nanoTime();
+					baseMatching.prepare(size + 1);
+					sizeCounter.matching(matchingStarted);
+				}
+				workers.await();
+				for (GeneratorTask task : tasks) {
+					trues.or(task.trues);
+					falses.or(task.falses);
+					sizeCounter.addChecks(task.checked, task.matchingNanos);
 				}
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+				
+				oldTrues = trues;
+				oldFalses = falses;
+				
+				sizeCounter.finish(trues, falses);
+				sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
 			}
-			
-			oldTrues = trues;
-			oldFalses = falses;
-			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
 		}
 		
 	}
 		
-	private final class GeneratorThread extends Thread implements Runnable {
+	private final class GeneratorTask implements Runnable {
 
-		private final DefaultUndirectedGraph<Integer, DefaultEdge> graph;
-		public final Set<Integer> trues = new TreeSet<>();
-		public final Set<Integer> falses = new TreeSet<>();
-		private final TreeSet<Integer> toCheck;
-		private final double oldWeight;
+		private final DivisorGraph graph;
+		public final BitSet trues = new BitSet();
+		public final BitSet falses = new BitSet();
+		public int checked;
+		public long matchingNanos;
+		private final BlossomMatching matching;
+		private final DeletionOracle oracle;
+		private final CandidateQueue toCheck;
+		private final int[] baseMates;
+		private final int oldMatchingSize;
+		private final int[] detachedVertices;
+		private final int[] localVertices;
+		private final int[] phase2Rotate;
 		
-		public GeneratorThread(DefaultUndirectedGraph<Integer, DefaultEdge> baseGraph, TreeSet<Integer> toCheck, double oldWeight) {
-			super();
+		public GeneratorTask(DeletionOracle oracle, CandidateQueue toCheck, int[] baseMates, int oldMatchingSize) {
 			this.toCheck = toCheck;
-			this.graph = baseGraph;
-			this.oldWeight = oldWeight;
+			this.graph = oracle.getMatching().getGraph();
+			this.matching = oracle.getMatching();
+			this.oracle = oracle;
+			this.baseMates = baseMates;
+			this.oldMatchingSize = oldMatchingSize;
+			this.detachedVertices = new int[graph.size() + 1];
+			this.localVertices = new int[graph.size() + 1];
+			this.phase2Rotate = new int[graph.size() + 1];
 		}
 		
 		@Override
 		public void run() {
-			Set<Integer> toRemoveFromToCheck = new TreeSet<>();
+			long loadStarted = System.nanoTime();
+			oracle.loadBaseMatching(baseMates, oldMatchingSize);
+			matchingNanos += System.nanoTime() - loadStarted;
 			
-			while(true) {
-				int s;
-				synchronized(toCheck) {
-					toCheck.removeAll(toRemoveFromToCheck);
-					if (toCheck.isEmpty())
-						break;
-					s = toCheck.pollFirst();
-				}
-				
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
-				graph.removeVertex(s);
-				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				Matching<Integer, DefaultEdge> theMatching = matching.getMatching();
-				double newWeight = theMatching.getWeight();
+			int s;
+			while((s = toCheck.poll()) >= 0) {
+				int detachedCount = graph.neighborsOf(s, detachedVertices);
+				long matchingStarted = System.nanoTime();
+				int newMatchingSize = oracle.deleteVertex(s);
+				matchingNanos += System.nanoTime() - matchingStarted;
+				checked++;
 				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
+					trues.set(s);
 					
 					// Partial rotate
-					TreeMap<Integer, Integer> unpackedMatching = new TreeMap<>();
-					toRemoveFromToCheck = new TreeSet<>();
-					
-					for (DefaultEdge e : theMatching) {
-						int target = graph.getEdgeTarget(e);
-						int source = graph.getEdgeSource(e);
-						
-						unpackedMatching.put(target, source);
-						unpackedMatching.put(source, target);
-					}
-					
-					TreeSet<Integer> phase2Rotate = new TreeSet<>();
-					for (int n : detachedVertices) {
-						int pair = unpackedMatching.get(n);
+					int rotated = 0;
+					for (int i = 0; i < detachedCount; i++) {
+						int pair = matching.mateOf(detachedVertices[i]);
+						if (pair == 0)
+							continue;
 						
-						trues.add(pair);
-						toRemoveFromToCheck.add(pair);
-						phase2Rotate.add(pair);
+						trues.set(pair);
+						toCheck.remove(pair);
+						phase2Rotate[rotated++] = pair;
 					}
 					
-					for (int n : phase2Rotate) {
-						Set<Integer> locals = Graphs.neighborSetOf(graph, n);
-						for (int l : locals) {
-							int pair = unpackedMatching.get(l);
+					for (int i = 0; i < rotated; i++) {
+						int localCount = graph.neighborsOf(phase2Rotate[i], localVertices);
+						for (int j = 0; j < localCount; j++) {
+							int pair = matching.mateOf(localVertices[j]);
+							if (pair == 0)
+								continue;
 							
-							trues.add(pair);
-							toRemoveFromToCheck.add(pair);
+							trues.set(pair);
+							toCheck.remove(pair);
 						}
 					}
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				matchingStarted = System.nanoTime();
+				oracle.restoreVertex();
+				matchingNanos += System.nanoTime() - matchingStarted;
 			}
 		}
 		
@@ -0,0 +1,225 @@
+package net.calebswalker.algorithms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * The parallel 2 partial rotation algorithm with one task per candidate vertex, like
+ * StandardConservedTaskParallelAlgorithm. A task whose vertex was already settled by another task's propagation ends
+ * without a check.
+ */
+public class Standard2RotationConservedTaskParallelAlgorithm extends TestCaseAlgorithm {
+
+	private final int threadCount;
+	
+	public Standard2RotationConservedTaskParallelAlgorithm() {
+		this(4);
+	}
+	
+	public Standard2RotationConservedTaskParallelAlgorithm(int threadCount) {
+		super("Standard Parallel Algorithm with Conservation and 2 Partial Rotations, One Task per Vertex: " + threadCount + " Threads");
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("Must have positive number of threads!");
+		}
+		this.threadCount = threadCount;
+	}
+	
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, null);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, seed);
+	}
+	
+	private void run(int maxValue, BoardResultSink sink, Checkpoint seed) throws IOException {
+		int minSize = 4;
+		final int maxSize = maxValue;
+		
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final TaskCheckers checkers = new TaskCheckers(graph, threadCount, maxSize);
+		final BaseMatchingPipeline baseMatching = new BaseMatchingPipeline(sieve, maxSize);
+		
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
+		
+		int startSize = 1;
+		
+		if (seed != null) { // Pick up after a board that is already known
+			if (seed.getSize() >= maxSize)
+				return;
+			startSize = seed.getSize() + 1;
+			graph.growTo(seed.getSize());
+			
+			oldTrues = seed.getTrues();
+			oldFalses = seed.getFalses();
+			baseMatching.seed(seed);
+		}
+		
+		try (WorkerPool workers = new WorkerPool(threadCount)) {
+			for (int size = startSize; size <= maxSize; size++) { // Set size = 1 for full board else 2
+				sizeCounter.startSize(size);
+				graph.addVertex();
+				
+				if (size < minSize)
+					continue;
+				
+				if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+					sizeCounter.shortcut(oldTrues, oldFalses);
+					sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
+					continue;
+				}
+				
+				BitSet trues;
+				BitSet falses;
+				BitSet toCheck;
+				
+				if (oldTrues != null) { // We got some stuff to work with
+					BitSet neighbors = graph.neighborMaskOf(size);
+					if (containsAll(oldFalses, neighbors)) { // Size is true
+						trues = oldTrues;
+						trues.set(size);
+						
+						falses = new BitSet();
+						toCheck = (BitSet) oldFalses.clone();
+						
+						falses.set(1);
+						toCheck.clear(1);
+						sizeCounter.candidates(toCheck);
+						
+						// Partial rotate, through the previous size's matching
+						int[] oldMatching = baseMatching.getMates();
+						BitSet phase2Rotate = new BitSet();
+						for (int n = neighbors.nextSetBit(0); n >= 0; n = neighbors.nextSetBit(n + 1)) {
+							int pair = oldMatching[n];
+							if (pair == 0)
+								continue;
+							
+							trues.set(pair);
+							toCheck.clear(pair);
+							phase2Rotate.set(pair);
+						}
+						
+						for (int n = phase2Rotate.nextSetBit(0); n >= 0; n = phase2Rotate.nextSetBit(n + 1)) {
+							for (int l : graph.neighborsOf(n)) {
+								int pair = oldMatching[l];
+								if (pair == 0)
+									continue;
+								
+								trues.set(pair);
+								toCheck.clear(pair);
+							}
+						}
+					}
+					else { // Size is false
+						falses = oldFalses;
+						falses.set(size);
+						
+						trues = new BitSet();
+						toCheck = (BitSet) oldTrues.clone();
+						sizeCounter.candidates(toCheck);
+					}
+				}
+				else { // We don't have anything to start from
+					trues = new BitSet();
+					falses = new BitSet();
+					toCheck = new BitSet();
+					toCheck.set(2, size + 1);
+					
+					falses.set(1);
+					toCheck.clear(1);
+					sizeCounter.candidates(toCheck);
+				}
+				
+				long matchingStarted = System.nanoTime();
+				final int oldMatchingSize = baseMatching.advance(size);
+				sizeCounter.matching(matchingStarted);
+				
+				final int[] baseMates = baseMatching.getMates();
+				final CandidateQueue candidates = new CandidateQueue(toCheck);
+				final int checkedSize = size;
+				List<Runnable> tasks = new ArrayList<>();
+				
+				for (int s = toCheck.nextSetBit(0); s >= 0; s = toCheck.nextSetBit(s + 1)) {
+					final int vertex = s;
+					tasks.add(() -> {
+						if (!candidates.remove(vertex)) // Settled by another task's propagation in the meantime
+							return;
+						
+						checkers.check(checker -> {
+							checker.load(checkedSize, baseMates, oldMatchingSize);
+							
+							int detachedCount = checker.graph.neighborsOf(vertex, checker.detachedVertices);
+							long checkStarted = System.nanoTime();
+							int newMatchingSize = checker.oracle.deleteVertex(vertex);
+							checker.matchingNanos += System.nanoTime() - checkStarted;
+							checker.checked++;
+							
+							if (newMatchingSize < oldMatchingSize) {
+								checker.falses.set(vertex);
+							}
+							else {
+								checker.trues.set(vertex);
+							
+								// Partial rotate
+								int rotated = 0;
+								for (int i = 0; i < detachedCount; i++) {
+									int pair = checker.matching.mateOf(checker.detachedVertices[i]);
+									if (pair == 0)
+										continue;
+								
+									checker.trues.set(pair);
+									candidates.remove(pair);
+									checker.rotated[rotated++] = pair;
+								}
+							
+								for (int i = 0; i < rotated; i++) {
+									int localCount = checker.graph.neighborsOf(checker.rotated[i], checker.localVertices);
+									for (int j = 0; j < localCount; j++) {
+										int pair = checker.matching.mateOf(checker.localVertices[j]);
+										if (pair == 0)
+											continue;
+									
+										checker.trues.set(pair);
+										candidates.remove(pair);
+									}
+								}
+							}
+							
+							checkStarted = System.nanoTime();
+							checker.oracle.restoreVertex();
+							checker.matchingNanos += System.nanoTime() - checkStarted;
+						});
+					});
+				}
+				
+				workers.start(tasks);
+				if (size < maxSize) { // The next size's matching doesn't depend on this size's results
+					matchingStarted = System.nanoTime();
+					baseMatching.prepare(size + 1);
+					sizeCounter.matching(matchingStarted);
+				}
+				workers.await();
+				checkers.collect(trues, falses, sizeCounter);
+				
+				oldTrues = trues;
+				oldFalses = falses;
+				
+				sizeCounter.finish(trues, falses);
+				sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
+			}
+		}
+		
+	}
+}
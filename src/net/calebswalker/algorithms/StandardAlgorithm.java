@@ -1,109 +1,100 @@
 package net.calebswalker.algorithms;
 
 import java.io.IOException;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.BitSet;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class StandardAlgorithm extends TestCaseAlgorithm {
 
 	public StandardAlgorithm() {
-		super("Standard Algorithm");
+		this("Standard Algorithm");
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	protected StandardAlgorithm(String algorithmName) {
+		super(algorithmName);
+	}
+	
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(1, maxValue, sink);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(seed.getSize() + 1, maxValue, sink);
+	}
+	
+	// Only the shortcuts look at the size before, so any range of sizes can be computed on its own
+	public void run(int fromSize, int toSize, BoardResultSink sink) throws IOException {
+		run(fromSize, toSize, sink, getMetrics());
+	}
+	
+	// Reports the range to metrics of its own instead of the algorithm's
+	void run(int fromSize, int toSize, BoardResultSink sink, PruningMetrics metrics) throws IOException {
 		int minSize = 4;
-		final int maxSize = Math.max(1, maxValue);
+		final int maxSize = Math.max(1, toSize);
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final DefaultUndirectedGraph<Integer, DefaultEdge> graph = new DefaultUndirectedGraph<>(DefaultEdge.class);
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this, metrics);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final BlossomMatching matching = new BlossomMatching(graph);
 				
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			graph.addVertex(size);
-			for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-				if (size == j)
-					continue;
-				if (size % j == 0) {
-					graph.addEdge(j, size);
-					if (j != 1) {
-						graph.addEdge(size / j, size);
-					}
-				}
-			}
-			
-			if (graph.degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
+		graph.growTo(fromSize - 1);
+		for (int size = Math.max(1, fromSize); size <= maxSize; size++) { // Set size = 1 for full board else 2
+			sizeCounter.startSize(size);
+			graph.addVertex();
 			
 			if (size < minSize)
 				continue;
 			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
-				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
-					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
-					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
-				}
+			if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+				sizeCounter.shortcut(oldTrues, oldFalses);
+				sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
+				continue;
 			}
 			
-			TreeSet<Integer> trues = new TreeSet<>();
-			TreeSet<Integer> falses = new TreeSet<>();
+			BitSet trues = new BitSet();
+			BitSet falses = new BitSet();
 			
 			if (size > 1)
-				falses.add(1);
+				falses.set(1);
 			
-			EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-			final double oldWeight = defaultMatching.getMatching().getWeight();
+			sizeCounter.candidates(size - 1);
+			long matchingStarted = System.nanoTime();
+			final int oldMatchingSize = matching.computeMaximumMatching();
+			sizeCounter.matching(matchingStarted);
 			
 			for (int s = 2; s <= size; s++) {
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
+				matchingStarted = System.nanoTime();
 				graph.removeVertex(s);
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				double newWeight = matching.getMatching().getWeight();
+				int newMatchingSize = matching.computeMaximumMatching();
+				sizeCounter.matching(matchingStarted);
+				sizeCounter.checked();
 				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
+					trues.set(s);
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				graph.restoreVertex(s);
 			}
 			
 			oldTrues = trues;
 			oldFalses = falses;
 			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
+			sizeCounter.finish(trues, falses);
+			sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
 		}
 		
 	}
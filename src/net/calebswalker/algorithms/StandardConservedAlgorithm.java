@@ -1,14 +1,14 @@
 package net.calebswalker.algorithms;
 
 import java.io.IOException;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.BitSet;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class StandardConservedAlgorithm extends TestCaseAlgorithm {
 
@@ -16,125 +16,115 @@ public class StandardConservedAlgorithm extends TestCaseAlgorithm {
 		super("Standard Algorithm with Conservation");
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, null);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, seed);
+	}
+	
+	private void run(int maxValue, BoardResultSink sink, Checkpoint seed) throws IOException {
 		int minSize = 4;
 		final int maxSize = Math.max(1, maxValue);
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final DefaultUndirectedGraph<Integer, DefaultEdge> graph = new DefaultUndirectedGraph<>(DefaultEdge.class);
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final DeletionOracle oracle = new DeletionOracle(new BlossomMatching(graph));
 				
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			graph.addVertex(size);
-			for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-				if (size == j)
-					continue;
-				if (size % j == 0) {
-					graph.addEdge(j, size);
-					if (j != 1) {
-						graph.addEdge(size / j, size);
-					}
-				}
-			}
+		int startSize = 1;
+		
+		if (seed != null) { // Pick up after a board that is already known
+			if (seed.getSize() >= maxSize)
+				return;
+			startSize = seed.getSize() + 1;
+			graph.growTo(seed.getSize());
 			
-			if (graph.degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
+			oldTrues = seed.getTrues();
+			oldFalses = seed.getFalses();
+			seedBaseMatching(oracle, seed);
+		}
+		
+		for (int size = startSize; size <= maxSize; size++) { // Set size = 1 for full board else 2
+			sizeCounter.startSize(size);
+			graph.addVertex();
 			
 			if (size < minSize)
 				continue;
 			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
-				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
-					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
-					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
-				}
+			if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+				sizeCounter.shortcut(oldTrues, oldFalses);
+				sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
+				continue;
 			}
 			
-			TreeSet<Integer> trues;
-			TreeSet<Integer> falses;
-			TreeSet<Integer> toCheck;
+			BitSet trues;
+			BitSet falses;
+			BitSet toCheck;
 			
 			if (oldTrues != null) { // We got some stuff to work with
-				Set<Integer> neighbors = Graphs.neighborSetOf(graph, size);
-				if (oldFalses.containsAll(neighbors)) { // Size is true
+				BitSet neighbors = graph.neighborMaskOf(size);
+				if (containsAll(oldFalses, neighbors)) { // Size is true
 					trues = oldTrues;
-					trues.add(size);
+					trues.set(size);
 					
-					falses = new TreeSet<>();
-					toCheck = new TreeSet<>(oldFalses);
+					falses = new BitSet();
+					toCheck = (BitSet) oldFalses.clone();
 					
-					falses.add(1);
-					toCheck.remove(1);
+					falses.set(1);
+					toCheck.clear(1);
 				}
 				else { // Size is false
 					falses = oldFalses;
-					falses.add(size);
+					falses.set(size);
 					
-					trues = new TreeSet<>();
-					toCheck = new TreeSet<>(oldTrues);
+					trues = new BitSet();
+					toCheck = (BitSet) oldTrues.clone();
 				}
 			}
 			else { // We don't have anything to start from
-				trues = new TreeSet<>();
-				falses = new TreeSet<>();
-				toCheck = new TreeSet<>();
-				for (int i = 2; i <= size; i++)
-					toCheck.add(i);
+				trues = new BitSet();
+				falses = new BitSet();
+				toCheck = new BitSet();
+				toCheck.set(2, size + 1);
 				
-				falses.add(1);
-				toCheck.remove(1);
+				falses.set(1);
+				toCheck.clear(1);
 			}
 			
-			EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-			final double oldWeight = defaultMatching.getMatching().getWeight();
+			sizeCounter.candidates(toCheck);
+			long matchingStarted = System.nanoTime();
+			final int oldMatchingSize = oracle.extendBaseMatching();
+			sizeCounter.matching(matchingStarted);
 			
-			while (!toCheck.isEmpty()) {
-				int s = toCheck.pollFirst();
+			for (int s = toCheck.nextSetBit(0); s >= 0; s = toCheck.nextSetBit(s + 1)) {
 				
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
-				graph.removeVertex(s);
+				matchingStarted = System.nanoTime();
+				int newMatchingSize = oracle.deleteVertex(s);
+				sizeCounter.checked();
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				double newWeight = matching.getMatching().getWeight();
-				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
+					trues.set(s);
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				oracle.restoreVertex();
+				sizeCounter.matching(matchingStarted);
 			}
 			
 			oldTrues = trues;
 			oldFalses = falses;
 			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
+			sizeCounter.finish(trues, falses);
+			sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
 		}
 		
 	}
@@ -2,16 +2,16 @@ package net.calebswalker.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class StandardConservedParallelAlgorithm extends TestCaseAlgorithm {
 
@@ -29,173 +29,175 @@ public class StandardConservedParallelAlgorithm extends TestCaseAlgorithm {
 		this.threadCount = threadCount;
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, null);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, seed);
+	}
+	
+	private void run(int maxValue, BoardResultSink sink, Checkpoint seed) throws IOException {
 		int minSize = 4;
 		final int maxSize = maxValue;
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final List<DefaultUndirectedGraph<Integer, DefaultEdge>> threadGraphs = new ArrayList<>();
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final List<DeletionOracle> threadOracles = new ArrayList<>();
+		final BaseMatchingPipeline baseMatching = new BaseMatchingPipeline(sieve, maxSize);
 		
+		// One graph for every thread, each deleting vertices through a mask of its own
 		for (int i = 0; i < threadCount; i++) {
-			threadGraphs.add(new DefaultUndirectedGraph<>(DefaultEdge.class));
+			threadOracles.add(new DeletionOracle(new BlossomMatching(i == 0 ? graph : graph.maskedView())));
 		}
 		
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			for (DefaultUndirectedGraph<Integer, DefaultEdge> graph : threadGraphs) {
-				graph.addVertex(size);
-				for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-					if (size == j)
-						continue;
-					if (size % j == 0) {
-						graph.addEdge(j, size);
-						if (j != 1) {
-							graph.addEdge(size / j, size);
-						}
-					}
-				}
-			}
-			
-			if (threadGraphs.get(0).degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
-			
-			if (size < minSize)
-				continue;
+		int startSize = 1;
+		
+		if (seed != null) { // Pick up after a board that is already known
+			if (seed.getSize() >= maxSize)
+				return;
+			startSize = seed.getSize() + 1;
+			graph.growTo(seed.getSize());
 			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
+			oldTrues = seed.getTrues();
+			oldFalses = seed.getFalses();
+			baseMatching.seed(seed);
+		}
+		
+		try (WorkerPool workers = new WorkerPool(threadCount)) {
+			for (int size = startSize; size <= maxSize; size++) { // Set size = 1 for full board else 2
+				sizeCounter.startSize(size);
+				graph.addVertex();
+				
+				if (size < minSize)
+					continue;
+				
+				if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+					sizeCounter.shortcut(oldTrues, oldFalses);
+					sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
 					continue;
 				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
+				
+				BitSet trues;
+				BitSet falses;
+				BitSet toCheck;
+				
+				if (oldTrues != null) { // We got some stuff to work with
+					BitSet neighbors = graph.neighborMaskOf(size);
+					if (containsAll(oldFalses, neighbors)) { // Size is true
+						trues = oldTrues;
+						trues.set(size);
+						
+						falses = new BitSet();
+						toCheck = (BitSet) oldFalses.clone();
+						
+						falses.set(1);
+						toCheck.clear(1);
 					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
+					else { // Size is false
+						falses = oldFalses;
+						falses.set(size);
+						
+						trues = new BitSet();
+						toCheck = (BitSet) oldTrues.clone();
 					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
 				}
-			}
-			
-			TreeSet<Integer> trues;
-			TreeSet<Integer> falses;
-			List<Integer> toCheck;
-			
-			if (oldTrues != null) { // We got some stuff to work with
-				Set<Integer> neighbors = Graphs.neighborSetOf(threadGraphs.get(0), size);
-				if (oldFalses.containsAll(neighbors)) { // Size is true
-					trues = oldTrues;
-					trues.add(size);
-					
-					falses = new TreeSet<>();
-					toCheck = new ArrayList<>(oldFalses);
+				else { // We don't have anything to start from
+					trues = new BitSet();
+					falses = new BitSet();
+					toCheck = new BitSet();
+					toCheck.set(2, size + 1);
 					
-					falses.add(1);
-					toCheck.remove((Integer) 1);
+					falses.set(1);
+					toCheck.clear(1);
 				}
-				else { // Size is false
-					falses = oldFalses;
-					falses.add(size);
-					
-					trues = new TreeSet<>();
-					toCheck = new ArrayList<>(oldTrues);
+				
+				sizeCounter.candidates(toCheck);
+				long matchingStarted = System.nanoTime();
+				final int oldMatchingSize = baseMatching.advance(size);
+				sizeCounter.matching(matchingStarted);
+				
+				List<GeneratorTask> tasks = new ArrayList<>();
+				AtomicInteger atomicInteger = new AtomicInteger(0);
+				int[] candidates = toCheck.stream().toArray();
+				
+				for (int i = 0; i < threadCount; i++) {
+					tasks.add(new GeneratorTask(threadOracles.get(i), candidates, atomicInteger, baseMatching.getMates(), oldMatchingSize));
 				}
-			}
-			else { // We don't have anything to start from
-				trues = new TreeSet<>();
-				falses = new TreeSet<>();
-				toCheck = new ArrayList<>();
-				for (int i = 2; i <= size; i++)
-					toCheck.add(i);
 				
-				falses.add(1);
-				toCheck.remove((Integer) 1);
-			}
-			
-			EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(threadGraphs.get(0));
-			final double oldWeight = defaultMatching.getMatching().getWeight();
-			
-			List<GeneratorThread> createdThreads = new ArrayList<>();
-			AtomicInteger atomicInteger = new AtomicInteger(0);
-			
-			for (int i = 0; i < threadCount; i++) {
-				GeneratorThread newThread = new GeneratorThread(threadGraphs.get(i), toCheck, atomicInteger, oldWeight);
-				createdThreads.add(newThread);
-				newThread.start();
-			}
-			
-			try {
-				for (GeneratorThread generatorThread : createdThreads) {
-					generatorThread.join();
-					trues.addAll(generatorThread.trues);
-					falses.addAll(generatorThread.falses);
+				workers.start(tasks);
+				if (size < maxSize) { // The next size's matching doesn't depend on this size's results
+					matchingStarted = System.nanoTime();
+					baseMatching.prepare(size + 1);
+					sizeCounter.matching(matchingStarted);
+				}
+				workers.await();
+				for (GeneratorTask task : tasks) {
+					trues.or(task.trues);
+					falses.or(task.falses);
+					sizeCounter.addChecks(task.checked, task.matchingNanos);
 				}
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+				
+				oldTrues = trues;
+				oldFalses = falses;
+				
+				sizeCounter.finish(trues, falses);
+				sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
 			}
-			
-			oldTrues = trues;
-			oldFalses = falses;
-			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
 		}
 		
 	}
 		
-	private final class GeneratorThread extends Thread implements Runnable {
+	private final class GeneratorTask implements Runnable {
 
-		private final DefaultUndirectedGraph<Integer, DefaultEdge> graph;
-		public final Set<Integer> trues = new TreeSet<>();
-		public final Set<Integer> falses = new TreeSet<>();
-		private final List<Integer> toCheck;
+		private final DeletionOracle oracle;
+		public final BitSet trues = new BitSet();
+		public final BitSet falses = new BitSet();
+		public int checked;
+		public long matchingNanos;
+		private final int[] toCheck;
 		private final AtomicInteger counter;
-		private final double oldWeight;
+		private final int[] baseMates;
+		private final int oldMatchingSize;
 		
-		public GeneratorThread(DefaultUndirectedGraph<Integer, DefaultEdge> baseGraph, List<Integer> toCheck, AtomicInteger counter, double oldWeight) {
-			super();
+		public GeneratorTask(DeletionOracle oracle, int[] toCheck, AtomicInteger counter, int[] baseMates, int oldMatchingSize) {
 			this.toCheck = toCheck;
 			this.counter = counter;
-			this.graph = baseGraph;
-			this.oldWeight = oldWeight;
+			this.oracle = oracle;
+			this.baseMates = baseMates;
+			this.oldMatchingSize = oldMatchingSize;
 		}
 		
 		@Override
 		public void run() {
+			long loadStarted = System.nanoTime();
+			oracle.loadBaseMatching(baseMates, oldMatchingSize);
+			matchingNanos += System.nanoTime() - loadStarted;
+			
 			int index;
-			int size = toCheck.size();
+			int size = toCheck.length;
 			while((index = counter.getAndIncrement()) < size) {
-				int s = toCheck.get(index);
+				int s = toCheck[index];
 				
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
-				graph.removeVertex(s);
+				long matchingStarted = System.nanoTime();
+				int newMatchingSize = oracle.deleteVertex(s);
+				checked++;
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				double newWeight = matching.getMatching().getWeight();
-				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
+					trues.set(s);
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				oracle.restoreVertex();
+				matchingNanos += System.nanoTime() - matchingStarted;
 			}
 		}
 		
@@ -0,0 +1,66 @@
+package net.calebswalker.algorithms;
+
+import java.io.IOException;
+import java.util.BitSet;
+
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
+
+public class StandardDecompositionAlgorithm extends TestCaseAlgorithm {
+
+	public StandardDecompositionAlgorithm() {
+		super("Standard Algorithm by Gallai-Edmonds Decomposition");
+	}
+	
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(1, maxValue, sink);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(seed.getSize() + 1, maxValue, sink);
+	}
+	
+	// No size depends on the one before it, so any range of sizes can be computed on its own
+	public void run(int fromSize, int toSize, BoardResultSink sink) throws IOException {
+		int minSize = 4;
+		final int maxSize = Math.max(1, toSize);
+		final int firstSize = Math.max(minSize, fromSize);
+		
+		final DivisorGraph graph = DivisorGraph.ofSize(DivisorSieve.shared(maxSize), firstSize - 1);
+		final BlossomMatching matching = new BlossomMatching(graph);
+		final boolean[] exposable = new boolean[maxSize + 1];
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		
+		for (int size = firstSize; size <= maxSize; size++) {
+			sizeCounter.startSize(size);
+			graph.addVertex();
+			
+			// s is true exactly when some maximum matching leaves it exposed, so one matching and one forest decide every s
+			long matchingStarted = System.nanoTime();
+			matching.extendMatching();
+			matching.markExposableVertices(exposable);
+			sizeCounter.candidates(size);
+			sizeCounter.addChecks(size, System.nanoTime() - matchingStarted);
+			
+			BitSet trues = new BitSet();
+			BitSet falses = new BitSet();
+			
+			for (int s = 1; s <= size; s++) {
+				if (exposable[s]) {
+					trues.set(s);
+				}
+				else {
+					falses.set(s);
+				}
+			}
+			
+			sizeCounter.finish(trues, falses);
+			sink.accept(size, trues, falses);
+		}
+		
+	}
+}
@@ -1,15 +1,14 @@
 package net.calebswalker.algorithms;
 
 import java.io.IOException;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.BitSet;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.interfaces.MatchingAlgorithm.Matching;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class StandardDiscoveryConservedAlgorithm extends TestCaseAlgorithm {
 
@@ -17,171 +16,153 @@ public class StandardDiscoveryConservedAlgorithm extends TestCaseAlgorithm {
 		super("Standard Algorithm by Discovery with Conservation");
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, null);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, seed);
+	}
+	
+	private void run(int maxValue, BoardResultSink sink, Checkpoint seed) throws IOException {
 		int minSize = 4;
 		final int maxSize = Math.max(1, maxValue);
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final DefaultUndirectedGraph<Integer, DefaultEdge> graph = new DefaultUndirectedGraph<>(DefaultEdge.class);
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final BlossomMatching matching = new BlossomMatching(graph);
+		final DeletionOracle oracle = new DeletionOracle(matching);
+		final int[] outerVertices = new int[maxSize + 1];
 				
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
-		Matching<Integer, DefaultEdge> oldMatching = null;
-		double oldWeight = 0;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
+		final int[] oldMatching = new int[maxSize + 1];
+		int oldMatchingSize = 0;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			graph.addVertex(size);
-			for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-				if (size == j)
-					continue;
-				if (size % j == 0) {
-					graph.addEdge(j, size);
-					if (j != 1) {
-						graph.addEdge(size / j, size);
-					}
-				}
-			}
+		int startSize = 1;
+		
+		if (seed != null) { // Pick up after a board that is already known
+			if (seed.getSize() >= maxSize)
+				return;
+			startSize = seed.getSize() + 1;
+			graph.growTo(seed.getSize());
 			
-			if (graph.degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
+			oldTrues = seed.getTrues();
+			oldFalses = seed.getFalses();
+			oldMatchingSize = seedBaseMatching(oracle, seed);
+			matching.copyMatesInto(oldMatching);
+		}
+		
+		for (int size = startSize; size <= maxSize; size++) { // Set size = 1 for full board else 2
+			sizeCounter.startSize(size);
+			graph.addVertex();
 			
 			if (size < minSize)
 				continue;
 			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
-				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
-					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
-					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
-				}
+			if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+				sizeCounter.shortcut(oldTrues, oldFalses);
+				sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
+				continue;
 			}
 			
-			TreeSet<Integer> trues;
-			TreeSet<Integer> falses;
-			TreeSet<Integer> toCheck;
+			BitSet trues;
+			BitSet falses;
+			BitSet toCheck;
 			
 			if (oldTrues != null) { // We got some stuff to work with
-				Set<Integer> neighbors = Graphs.neighborSetOf(graph, size);
-				if (oldFalses.containsAll(neighbors)) { // Size is true
+				BitSet neighbors = graph.neighborMaskOf(size);
+				if (containsAll(oldFalses, neighbors)) { // Size is true
 					trues = oldTrues;
-					trues.add(size);
+					trues.set(size);
 					
-					falses = new TreeSet<>();
-					toCheck = new TreeSet<>(oldFalses);
+					falses = new BitSet();
+					toCheck = (BitSet) oldFalses.clone();
 					
-					falses.add(1);
-					toCheck.remove(1);
+					falses.set(1);
+					toCheck.clear(1);
 				}
 				else { // Size is false
 					falses = oldFalses;
-					falses.add(size);
+					falses.set(size);
 					
-					trues = new TreeSet<>();
-					toCheck = new TreeSet<>(oldTrues);
+					trues = new BitSet();
+					toCheck = (BitSet) oldTrues.clone();
 					
-					EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-					oldMatching = defaultMatching.getMatching();
-					oldWeight = oldMatching.getWeight();
+					long matchingStarted = System.nanoTime();
+					oldMatchingSize = oracle.extendBaseMatching();
+					matching.copyMatesInto(oldMatching);
+					sizeCounter.matching(matchingStarted);
 				}
 			}
 			else { // We don't have anything to start from
-				trues = new TreeSet<>();
-				falses = new TreeSet<>();
-				toCheck = new TreeSet<>();
-				for (int i = 2; i <= size; i++)
-					toCheck.add(i);
-				
-				falses.add(1);
-				toCheck.remove(1);
+				trues = new BitSet();
+				falses = new BitSet();
+				toCheck = new BitSet();
+				toCheck.set(2, size + 1);
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-				oldMatching = defaultMatching.getMatching();
-				oldWeight = oldMatching.getWeight();
-			}
-			
-			TreeMap<Integer, Integer> theOldMatching = new TreeMap<>();
-			for (DefaultEdge e : oldMatching.getEdges()) {
-				int source = graph.getEdgeSource(e);
-				int target = graph.getEdgeTarget(e);
+				falses.set(1);
+				toCheck.clear(1);
 				
-				theOldMatching.put(source, target);
-				theOldMatching.put(target, source);
+				long matchingStarted = System.nanoTime();
+				oldMatchingSize = oracle.extendBaseMatching();
+				matching.copyMatesInto(oldMatching);
+				sizeCounter.matching(matchingStarted);
 			}
 			
-			TreeSet<Integer> outerVertices = new TreeSet<>();
+			sizeCounter.candidates(toCheck);
+			int outerCount = 0;
 			for (int i = 1; i <= size; i++) {
-				if (!theOldMatching.containsKey(i))
-					outerVertices.add(i);
+				if (oldMatching[i] == 0)
+					outerVertices[outerCount++] = i;
 			}
 			
-			while (!toCheck.isEmpty()) {
-				int s = toCheck.pollFirst();
-				
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
-				graph.removeVertex(s);
+			for (int s = toCheck.nextSetBit(0); s >= 0; s = toCheck.nextSetBit(s + 1)) {
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				Matching<Integer, DefaultEdge> newMatching = matching.getMatching();
-				double newWeight = newMatching.getWeight();
+				long matchingStarted = System.nanoTime();
+				int newMatchingSize = oracle.deleteVertex(s);
+				sizeCounter.matching(matchingStarted);
+				sizeCounter.checked();
 				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
+					trues.set(s);
 					
-					TreeMap<Integer, Integer> theNewMatching = new TreeMap<>();
-					for (DefaultEdge e : newMatching.getEdges()) {
-						int source = graph.getEdgeSource(e);
-						int target = graph.getEdgeTarget(e);
-						
-						theNewMatching.put(source, target);
-						theNewMatching.put(target, source);
-					}
-					
-					// Outer Vertex Transform Algorithm
-					for (int u : outerVertices) {
-						int x = u;
-						while (theNewMatching.containsKey(x)) {
-							int y = theNewMatching.get(x);
-							int z = theOldMatching.get(y);
+					// Outer Vertex Transform Algorithm. The matching walked here is the oracle's repaired one, which only differs from
+					// the base matching along one augmenting path, so most walks stop at their first step and the transform finds few
+					// vertices (242,771 checks at n=1000, more than 1 partial rotation). Walking a freshly computed matching instead
+					// brings that down to 204,626 checks, but computing it for every true vertex made the run four times slower
+					for (int i = 0; i < outerCount; i++) {
+						int x = outerVertices[i];
+						while (!matching.isExposed(x)) {
+							int y = matching.mateOf(x);
+							int z = oldMatching[y];
+							if (z == 0)
+								break;
 							
-							trues.add(z);
-							toCheck.remove(z);
+							trues.set(z);
+							toCheck.clear(z);
 							
 							x = z;
 						}
 					}
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				matchingStarted = System.nanoTime();
+				oracle.restoreVertex();
+				sizeCounter.matching(matchingStarted);
 			}
 			
 			oldTrues = trues;
 			oldFalses = falses;
 			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
+			sizeCounter.finish(trues, falses);
+			sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
 		}
 		
 	}
@@ -1,21 +1,24 @@
 package net.calebswalker.algorithms;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.interfaces.MatchingAlgorithm.Matching;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class StandardDiscoveryConservedParallelAlgorithm extends TestCaseAlgorithm {
 
 	private final int threadCount;
+	private Path checkpointFile;
+	private int checkpointInterval;
 	
 	public StandardDiscoveryConservedParallelAlgorithm() {
 		this(4);
@@ -29,229 +32,232 @@ public class StandardDiscoveryConservedParallelAlgorithm extends TestCaseAlgorit
 		this.threadCount = threadCount;
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	// Saves the running state to file after every interval-th board size (and the last one), for resume()
+	public void setCheckpoint(Path file, int interval) {
+		if (interval <= 0) {
+			throw new IllegalArgumentException("Checkpoint interval must be positive!");
+		}
+		this.checkpointFile = file;
+		this.checkpointInterval = interval;
+	}
+	
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, null);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(maxValue, sink, seed);
+	}
+	
+	// Picks a checkpointed run back up at the size after the last one it completed
+	public void resume(Path file, int maxValue, BoardResultSink sink) throws IOException {
+		continueFrom(Checkpoint.read(file), maxValue, sink);
+	}
+	
+	private void run(int maxValue, BoardResultSink sink, Checkpoint seed) throws IOException {
 		int minSize = 4;
 		final int maxSize = maxValue;
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final List<DefaultUndirectedGraph<Integer, DefaultEdge>> threadGraphs = new ArrayList<>();
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final List<DeletionOracle> threadOracles = new ArrayList<>();
+		final BaseMatchingPipeline baseMatching = new BaseMatchingPipeline(sieve, maxSize);
 		
+		// One graph for every thread, each deleting vertices through a mask of its own
 		for (int i = 0; i < threadCount; i++) {
-			threadGraphs.add(new DefaultUndirectedGraph<>(DefaultEdge.class));
+			threadOracles.add(new DeletionOracle(new BlossomMatching(i == 0 ? graph : graph.maskedView())));
 		}
 		
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
-		Matching<Integer, DefaultEdge> oldMatching = null;
-		double oldWeight = 0;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
+		int startSize = 1;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			for (DefaultUndirectedGraph<Integer, DefaultEdge> graph : threadGraphs) {
-				graph.addVertex(size);
-				for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-					if (size == j)
-						continue;
-					if (size % j == 0) {
-						graph.addEdge(j, size);
-						if (j != 1) {
-							graph.addEdge(size / j, size);
-						}
-					}
-				}
-			}
+		if (seed != null) { // Pick up after a board that is already known
+			if (seed.getSize() >= maxSize)
+				return;
+			startSize = seed.getSize() + 1;
+			graph.growTo(seed.getSize());
 			
-			if (threadGraphs.get(0).degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
-			
-			if (size < minSize)
-				continue;
-			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
+			oldTrues = seed.getTrues();
+			oldFalses = seed.getFalses();
+			baseMatching.seed(seed);
+		}
+		
+		try (WorkerPool workers = new WorkerPool(threadCount)) {
+			for (int size = startSize; size <= maxSize; size++) { // Set size = 1 for full board else 2
+				sizeCounter.startSize(size);
+				graph.addVertex();
+				
+				if (size < minSize)
+					continue;
+				
+				if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+					sizeCounter.shortcut(oldTrues, oldFalses);
+					sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
+					if (isCheckpointDue(size, maxSize)) { // Shortcuts skip the matching, but the checkpoint has to be of this size
+						long matchingStarted = System.nanoTime();
+						baseMatching.advance(size);
+						sizeCounter.matching(matchingStarted);
+						saveCheckpoint(size, maxSize, oldTrues, oldFalses, baseMatching.getMates(), baseMatching.getMatchingSize());
+					}
 					continue;
 				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
+				
+				BitSet trues;
+				BitSet falses;
+				BitSet toCheck;
+				
+				if (oldTrues != null) { // We got some stuff to work with
+					BitSet neighbors = graph.neighborMaskOf(size);
+					if (containsAll(oldFalses, neighbors)) { // Size is true
+						trues = oldTrues;
+						trues.set(size);
+						
+						falses = new BitSet();
+						toCheck = (BitSet) oldFalses.clone();
+						
+						falses.set(1);
+						toCheck.clear(1);
 					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
+					else { // Size is false
+						falses = oldFalses;
+						falses.set(size);
+						
+						trues = new BitSet();
+						toCheck = (BitSet) oldTrues.clone();
 					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
-					continue;
 				}
-			}
-			
-			TreeSet<Integer> trues;
-			TreeSet<Integer> falses;
-			TreeSet<Integer> toCheck;
-			
-			DefaultUndirectedGraph<Integer, DefaultEdge> graph = threadGraphs.get(0);
-			
-			if (oldTrues != null) { // We got some stuff to work with
-				Set<Integer> neighbors = Graphs.neighborSetOf(graph, size);
-				if (oldFalses.containsAll(neighbors)) { // Size is true
-					trues = oldTrues;
-					trues.add(size);
-					
-					falses = new TreeSet<>();
-					toCheck = new TreeSet<>(oldFalses);
+				else { // We don't have anything to start from
+					trues = new BitSet();
+					falses = new BitSet();
+					toCheck = new BitSet();
+					toCheck.set(2, size + 1);
 					
-					falses.add(1);
-					toCheck.remove(1);
+					falses.set(1);
+					toCheck.clear(1);
 				}
-				else { // Size is false
-					falses = oldFalses;
-					falses.add(size);
-					
-					trues = new TreeSet<>();
-					toCheck = new TreeSet<>(oldTrues);
-					
-					EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-					oldMatching = defaultMatching.getMatching();
-					oldWeight = oldMatching.getWeight();
+				
+				sizeCounter.candidates(toCheck);
+				// Extended even when size is true, now that it was prepared while the last size was being checked
+				long matchingStarted = System.nanoTime();
+				final int oldMatchingSize = baseMatching.advance(size);
+				final int[] oldMatching = baseMatching.getMates();
+				sizeCounter.matching(matchingStarted);
+				
+				int outerCount = 0;
+				int[] outerVertices = new int[size];
+				for (int i = 1; i <= size; i++) {
+					if (oldMatching[i] == 0)
+						outerVertices[outerCount++] = i;
 				}
-			}
-			else { // We don't have anything to start from
-				trues = new TreeSet<>();
-				falses = new TreeSet<>();
-				toCheck = new TreeSet<>();
-				for (int i = 2; i <= size; i++)
-					toCheck.add(i);
+				outerVertices = Arrays.copyOf(outerVertices, outerCount);
 				
-				falses.add(1);
-				toCheck.remove(1);
+				List<GeneratorTask> tasks = new ArrayList<>();
+				CandidateQueue candidates = new CandidateQueue(toCheck);
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(graph);
-				oldMatching = defaultMatching.getMatching();
-				oldWeight = oldMatching.getWeight();
-			}
-			
-			TreeMap<Integer, Integer> theOldMatching = new TreeMap<>();
-			for (DefaultEdge e : oldMatching.getEdges()) {
-				int source = graph.getEdgeSource(e);
-				int target = graph.getEdgeTarget(e);
+				for (int i = 0; i < threadCount; i++) {
+					tasks.add(new GeneratorTask(threadOracles.get(i), candidates, oldMatchingSize, outerVertices, oldMatching));
+				}
 				
-				theOldMatching.put(source, target);
-				theOldMatching.put(target, source);
-			}
-			
-			TreeSet<Integer> outerVertices = new TreeSet<>();
-			for (int i = 1; i <= size; i++) {
-				if (!theOldMatching.containsKey(i))
-					outerVertices.add(i);
-			}
-			
-			List<GeneratorThread> createdThreads = new ArrayList<>();
-			
-			for (int i = 0; i < threadCount; i++) {
-				GeneratorThread newThread = new GeneratorThread(threadGraphs.get(i), toCheck, oldWeight, new TreeSet<>(outerVertices), new TreeMap<>(theOldMatching));
-				createdThreads.add(newThread);
-				newThread.start();
-			}
-			
-			try {
-				for (GeneratorThread generatorThread : createdThreads) {
-					generatorThread.join();
-					trues.addAll(generatorThread.trues);
-					falses.addAll(generatorThread.falses);
+				workers.start(tasks);
+				if (size < maxSize) { // The next size's matching doesn't depend on this size's results
+					matchingStarted = System.nanoTime();
+					baseMatching.prepare(size + 1);
+					sizeCounter.matching(matchingStarted);
 				}
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+				workers.await();
+				for (GeneratorTask task : tasks) {
+					trues.or(task.trues);
+					falses.or(task.falses);
+					sizeCounter.addChecks(task.checked, task.matchingNanos);
+				}
+				
+				oldTrues = trues;
+				oldFalses = falses;
+				
+				sizeCounter.finish(trues, falses);
+				sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
+				saveCheckpoint(size, maxSize, trues, falses, oldMatching, oldMatchingSize);
 			}
-			
-			oldTrues = trues;
-			oldFalses = falses;
-			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
 		}
 		
 	}
+	
+	private void saveCheckpoint(int size, int maxSize, BitSet trues, BitSet falses, int[] matching, int matchingSize) throws IOException {
+		if (isCheckpointDue(size, maxSize)) {
+			new Checkpoint(size, trues, falses, matching, matchingSize).write(checkpointFile);
+		}
+	}
+	
+	private boolean isCheckpointDue(int size, int maxSize) {
+		return checkpointFile != null && (size % checkpointInterval == 0 || size == maxSize);
+	}
 		
-	private final class GeneratorThread extends Thread implements Runnable {
+	private final class GeneratorTask implements Runnable {
 
-		private final DefaultUndirectedGraph<Integer, DefaultEdge> graph;
-		public final Set<Integer> trues = new TreeSet<>();
-		public final Set<Integer> falses = new TreeSet<>();
-		private final TreeSet<Integer> toCheck, outerVertices;
-		private final double oldWeight;
-		private final TreeMap<Integer, Integer> theOldMatching;
+		public final BitSet trues = new BitSet();
+		public final BitSet falses = new BitSet();
+		public int checked;
+		public long matchingNanos;
+		private final BlossomMatching matching;
+		private final DeletionOracle oracle;
+		private final CandidateQueue toCheck;
+		private final int oldMatchingSize;
+		private final int[] outerVertices;
+		private final int[] oldMatching;
 		
-		public GeneratorThread(DefaultUndirectedGraph<Integer, DefaultEdge> baseGraph, TreeSet<Integer> toCheck, double oldWeight, TreeSet<Integer> outerVertices, TreeMap<Integer, Integer> theOldMatching) {
-			super();
+		public GeneratorTask(DeletionOracle oracle, CandidateQueue toCheck, int oldMatchingSize, int[] outerVertices, int[] oldMatching) {
 			this.toCheck = toCheck;
-			this.graph = baseGraph;
-			this.oldWeight = oldWeight;
+			this.matching = oracle.getMatching();
+			this.oracle = oracle;
+			this.oldMatchingSize = oldMatchingSize;
 			this.outerVertices = outerVertices;
-			this.theOldMatching = theOldMatching;
+			this.oldMatching = oldMatching;
 		}
 		
 		@Override
 		public void run() {
-			Set<Integer> toRemoveFromToCheck = new TreeSet<>();
+			long loadStarted = System.nanoTime();
+			oracle.loadBaseMatching(oldMatching, oldMatchingSize);
+			matchingNanos += System.nanoTime() - loadStarted;
 			
-			while(true) {
-				int s;
-				synchronized(toCheck) {
-					toCheck.removeAll(toRemoveFromToCheck);
-					if (toCheck.isEmpty())
-						break;
-					s = toCheck.pollFirst();
-				}
-				
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
-				graph.removeVertex(s);
+			int s;
+			while((s = toCheck.poll()) >= 0) {
+				long matchingStarted = System.nanoTime();
+				int newMatchingSize = oracle.deleteVertex(s);
+				matchingNanos += System.nanoTime() - matchingStarted;
+				checked++;
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				Matching<Integer, DefaultEdge> newMatching = matching.getMatching();
-				double newWeight = newMatching.getWeight();
-				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
-					
-					TreeMap<Integer, Integer> theNewMatching = new TreeMap<>();
-					for (DefaultEdge e : newMatching.getEdges()) {
-						int source = graph.getEdgeSource(e);
-						int target = graph.getEdgeTarget(e);
-						
-						theNewMatching.put(source, target);
-						theNewMatching.put(target, source);
-					}
+					trues.set(s);
 					
-					toRemoveFromToCheck = new TreeSet<>();
-					
-					// Outer Vertex Transform Algorithm
+					// Outer Vertex Transform Algorithm, against the oracle's repaired matching rather than a fresh one; see
+					// StandardDiscoveryConservedAlgorithm for what that costs in checks and saves in matchings
 					for (int u : outerVertices) {
 						int x = u;
-						while (theNewMatching.containsKey(x)) {
-							int y = theNewMatching.get(x);
-							int z = theOldMatching.get(y);
+						while (!matching.isExposed(x)) {
+							int y = matching.mateOf(x);
+							int z = oldMatching[y];
+							if (z == 0)
+								break;
 							
-							trues.add(z);
-							toRemoveFromToCheck.add(z);
+							trues.set(z);
+							toCheck.remove(z);
 							
 							x = z;
 						}
 					}
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				matchingStarted = System.nanoTime();
+				oracle.restoreVertex();
+				matchingNanos += System.nanoTime() - matchingStarted;
 			}
 		}
 		
@@ -0,0 +1,187 @@
+package net.calebswalker.algorithms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.BoardResults;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * The standard algorithm with the board sizes split into ranges instead of the vertices of one size. Every range builds
+ * its own graph up to where it starts and is computed on its own, so nothing is shared between the threads but the sieve.
+ * The ranges are handed to the sink in order, each as soon as the ranges before it are done, together with the metrics
+ * it kept for itself.
+ */
+public class StandardForkJoinAlgorithm extends StandardAlgorithm {
+
+	private final int threadCount;
+	private final int rangeSize;
+
+	public StandardForkJoinAlgorithm() {
+		this(4);
+	}
+
+	public StandardForkJoinAlgorithm(int threadCount) {
+		this(threadCount, 16);
+	}
+
+	public StandardForkJoinAlgorithm(int threadCount, int rangeSize) {
+		super("Standard Fork/Join Algorithm: " + threadCount + " Threads");
+		if (threadCount <= 0) {
+			throw new IllegalArgumentException("Must have positive number of threads!");
+		}
+		if (rangeSize <= 0) {
+			throw new IllegalArgumentException("Must have positive number of sizes per range!");
+		}
+		this.threadCount = threadCount;
+		this.rangeSize = rangeSize;
+	}
+
+	@Override
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		runRanges(4, maxValue, sink);
+	}
+
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		runRanges(Math.max(4, seed.getSize() + 1), maxValue, sink);
+	}
+
+	private void runRanges(int minSize, int maxValue, BoardResultSink sink) throws IOException {
+		final int maxSize = Math.max(1, maxValue);
+		if (maxSize < minSize)
+			return;
+
+		// Sieved once up front, so the ranges only ever read it
+		DivisorSieve.shared(maxSize);
+
+		FinishedRanges finished = new FinishedRanges((maxSize - minSize) / rangeSize + 1);
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			pool.execute(new RangeTask(finished, minSize, maxSize, 0, finished.count()));
+			for (int i = 0; i < finished.count(); i++) {
+				Range range = finished.take(i);
+				for (int size = range.results.getFirstSize(); size <= range.results.getLastSize(); size++)
+					sink.accept(size, range.results.truesAt(size), range.results.falsesAt(size));
+				range.metrics.replayInto(getMetrics());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	// Computes ranges [from, to) of the board, splitting them in half until only one is left
+	private final class RangeTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final FinishedRanges finished;
+		private final int firstSize;
+		private final int lastSize;
+		private final int from;
+		private final int to;
+
+		public RangeTask(FinishedRanges finished, int firstSize, int lastSize, int from, int to) {
+			this.finished = finished;
+			this.firstSize = firstSize;
+			this.lastSize = lastSize;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new RangeTask(finished, firstSize, lastSize, from, middle), new RangeTask(finished, firstSize, lastSize, middle, to));
+				return;
+			}
+
+			int fromSize = firstSize + from * rangeSize;
+			int toSize = Math.min(lastSize, fromSize + rangeSize - 1);
+			Range range = new Range();
+			try {
+				run(fromSize, toSize, range.results, range.metrics);
+			} catch (IOException | RuntimeException | Error e) {
+				finished.fail(e);
+				return;
+			}
+			finished.put(from, range);
+		}
+
+	}
+
+	// The boards of one range and its metrics, kept until the ranges before it have been passed on
+	private static final class Range {
+
+		private final BoardResults results = new BoardResults();
+		private final RecordedMetrics metrics = new RecordedMetrics();
+
+	}
+
+	// Every size's metrics as they were recorded, to be passed on later from the thread that called the algorithm
+	private static final class RecordedMetrics implements PruningMetrics {
+
+		private final List<long[]> sizes = new ArrayList<>();
+
+		@Override
+		public void record(int size, int shortcut, int conserved, int propagated, int matched, long matchingNanos, long totalNanos) {
+			sizes.add(new long[] { size, shortcut, conserved, propagated, matched, matchingNanos, totalNanos });
+		}
+
+		public void replayInto(PruningMetrics metrics) {
+			for (long[] s : sizes)
+				metrics.record((int) s[0], (int) s[1], (int) s[2], (int) s[3], (int) s[4], s[5], s[6]);
+		}
+
+	}
+
+	// The ranges the tasks have finished, waited for one at a time in order
+	private static final class FinishedRanges {
+
+		private final Range[] ranges;
+		private Throwable failure;
+
+		public FinishedRanges(int count) {
+			ranges = new Range[count];
+		}
+
+		public int count() {
+			return ranges.length;
+		}
+
+		public synchronized void put(int index, Range range) {
+			ranges[index] = range;
+			notifyAll();
+		}
+
+		public synchronized void fail(Throwable e) {
+			if (failure == null)
+				failure = e;
+			notifyAll();
+		}
+
+		// Gives up the range once it has been handed out, so only the ones still waiting for an earlier one are kept
+		public synchronized Range take(int index) throws IOException {
+			while (ranges[index] == null) {
+				if (failure != null)
+					throw new IOException("Computing boards failed!", failure);
+				try {
+					wait();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IOException("Interrupted while computing boards!", e);
+				}
+			}
+			Range range = ranges[index];
+			ranges[index] = null;
+			return range;
+		}
+
+	}
+}
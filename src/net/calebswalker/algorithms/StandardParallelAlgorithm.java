@@ -2,17 +2,15 @@ package net.calebswalker.algorithms;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.jgrapht.Graphs;
-import org.jgrapht.alg.interfaces.MatchingAlgorithm.Matching;
-import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
-import org.jgrapht.graph.DefaultEdge;
-import org.jgrapht.graph.DefaultUndirectedGraph;
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+import net.calebswalker.util.DivisorSieve;
 
 public class StandardParallelAlgorithm extends TestCaseAlgorithm {
 
@@ -30,144 +28,125 @@ public class StandardParallelAlgorithm extends TestCaseAlgorithm {
 		this.threadCount = threadCount;
 	}
 	
-	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+	public void run(int maxValue, BoardResultSink sink) throws IOException {
+		run(1, maxValue, sink);
+	}
+	
+	@Override
+	public void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException {
+		run(seed.getSize() + 1, maxValue, sink);
+	}
+	
+	// Like the standard algorithm, nothing but the shortcuts looks at the size before, so any range can be computed
+	public void run(int fromSize, int toSize, BoardResultSink sink) throws IOException {
 		int minSize = 4;
-		final int maxSize = maxValue;
+		final int maxSize = Math.max(1, toSize);
 		
-		final TreeSet<Integer> primes = new TreeSet<>();
-		final List<DefaultUndirectedGraph<Integer, DefaultEdge>> threadGraphs = new ArrayList<>();
+		final DivisorSieve sieve = DivisorSieve.shared(maxSize);
+		final BoardShortcuts shortcuts = new BoardShortcuts(sieve);
+		final SizeCounter sizeCounter = new SizeCounter(this);
+		final DivisorGraph graph = new DivisorGraph(sieve, maxSize);
+		final List<BlossomMatching> threadMatchings = new ArrayList<>();
 		
+		// One graph for every thread, each deleting vertices through a mask of its own
 		for (int i = 0; i < threadCount; i++) {
-			threadGraphs.add(new DefaultUndirectedGraph<>(DefaultEdge.class));
+			threadMatchings.add(new BlossomMatching(i == 0 ? graph : graph.maskedView()));
 		}
 		
-		TreeSet<Integer> oldTrues = null;
-		TreeSet<Integer> oldFalses = null;
+		BitSet oldTrues = null;
+		BitSet oldFalses = null;
 		
-		for (int size = 1; size <= maxSize; size++) { // Set size = 1 for full board else 2
-			for (DefaultUndirectedGraph<Integer, DefaultEdge> graph : threadGraphs) {
-				graph.addVertex(size);
-				for (int j = 1; j*j <= size; j++) { // Set j = 1 for full board else 2
-					if (size == j)
-						continue;
-					if (size % j == 0) {
-						graph.addEdge(j, size);
-						if (j != 1) {
-							graph.addEdge(size / j, size);
-						}
-					}
-				}
-			}
-			
-			if (threadGraphs.get(0).degreeOf(size) == 1) { // Set == 1 if using full board else 0
-				primes.add(size);
-			}
-			
-			if (size < minSize)
-				continue;
-			
-			if (oldTrues != null && size >= 12) {
-				if (primes.contains(size)) { // Prime special case
-					oldTrues.add(size);
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
+		graph.growTo(fromSize - 1);
+		try (WorkerPool workers = new WorkerPool(threadCount)) {
+			for (int size = Math.max(1, fromSize); size <= maxSize; size++) { // Set size = 1 for full board else 2
+				sizeCounter.startSize(size);
+				graph.addVertex();
+				
+				if (size < minSize)
 					continue;
-				}
-				else if ((size & 2) == 0 && primes.contains(size / 2)) { // Twice a prime special case
-					oldFalses.add(size);
-					if (oldFalses.contains(2)) {
-						oldFalses.add(size / 2);
-						oldTrues.remove(size / 2);
-					}
-					else {
-						oldTrues.add(size / 2);
-						oldFalses.remove(size / 2);
-					}
-					
-					totalTrues.put(size, new TreeSet<>(oldTrues));
-					totalFalses.put(size, new TreeSet<>(oldFalses));
+				
+				if (oldTrues != null && shortcuts.apply(size, oldTrues, oldFalses)) {
+					sizeCounter.shortcut(oldTrues, oldFalses);
+					sink.accept(size, (BitSet) oldTrues.clone(), (BitSet) oldFalses.clone());
 					continue;
 				}
-			}
-			
-			TreeSet<Integer> trues = new TreeSet<>();
-			TreeSet<Integer> falses = new TreeSet<>();
-			
-			if (size > 1)
-				falses.add(1);
-			else
-				trues.add(1);
-			
-			EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> defaultMatching = new EdmondsMaximumCardinalityMatching<>(threadGraphs.get(0));
-			final double oldWeight = defaultMatching.getMatching().getWeight();
-			
-			List<GeneratorThread> createdThreads = new ArrayList<>();
-			AtomicInteger atomicInteger = new AtomicInteger(2);
-			
-			for (int i = 0; i < threadCount; i++) {
-				GeneratorThread newThread = new GeneratorThread(threadGraphs.get(i), size, atomicInteger, oldWeight);
-				createdThreads.add(newThread);
-				newThread.start();
-			}
-			
-			try {
-				for (GeneratorThread generatorThread : createdThreads) {
-					generatorThread.join();
-					trues.addAll(generatorThread.trues);
-					falses.addAll(generatorThread.falses);
+				
+				BitSet trues = new BitSet();
+				BitSet falses = new BitSet();
+				
+				if (size > 1)
+					falses.set(1);
+				else
+					trues.set(1);
+				
+				sizeCounter.candidates(size - 1);
+				long matchingStarted = System.nanoTime();
+				final int oldMatchingSize = threadMatchings.get(0).computeMaximumMatching();
+				sizeCounter.matching(matchingStarted);
+				
+				List<GeneratorTask> tasks = new ArrayList<>();
+				AtomicInteger atomicInteger = new AtomicInteger(2);
+				
+				for (int i = 0; i < threadCount; i++) {
+					tasks.add(new GeneratorTask(threadMatchings.get(i), size, atomicInteger, oldMatchingSize));
 				}
-			} catch (InterruptedException e) {
-				e.printStackTrace();
+				
+				workers.runAll(tasks);
+				for (GeneratorTask task : tasks) {
+					trues.or(task.trues);
+					falses.or(task.falses);
+					sizeCounter.addChecks(task.checked, task.matchingNanos);
+				}
+				
+				oldTrues = trues;
+				oldFalses = falses;
+				
+				sizeCounter.finish(trues, falses);
+				sink.accept(size, (BitSet) trues.clone(), (BitSet) falses.clone());
 			}
-			
-			oldTrues = trues;
-			oldFalses = falses;
-			
-			totalTrues.put(size, new TreeSet<>(trues));
-			totalFalses.put(size, new TreeSet<>(falses));
 		}
 		
 	}
 		
-	private final class GeneratorThread extends Thread implements Runnable {
+	private final class GeneratorTask implements Runnable {
 
-		private final DefaultUndirectedGraph<Integer, DefaultEdge> graph;
-		public final Set<Integer> trues = new TreeSet<>();
-		public final Set<Integer> falses = new TreeSet<>();
+		private final DivisorGraph graph;
+		private final BlossomMatching matching;
+		public final BitSet trues = new BitSet();
+		public final BitSet falses = new BitSet();
+		public int checked;
+		public long matchingNanos;
 		private final int size;
 		private final AtomicInteger counter;
-		private final double oldWeight;
+		private final int oldMatchingSize;
 		
-		public GeneratorThread(DefaultUndirectedGraph<Integer, DefaultEdge> baseGraph, int size, AtomicInteger counter, double oldWeight) {
-			super();
+		public GeneratorTask(BlossomMatching matching, int size, AtomicInteger counter, int oldMatchingSize) {
 			this.size = size;
 			this.counter = counter;
-			this.graph = baseGraph;
-			this.oldWeight = oldWeight;
+			this.graph = matching.getGraph();
+			this.matching = matching;
+			this.oldMatchingSize = oldMatchingSize;
 		}
 		
 		@Override
 		public void run() {
 			int s;
 			while((s = counter.getAndIncrement()) <= size) {	
-				Set<Integer> detachedVertices = Graphs.neighborSetOf(graph, s);
+				long matchingStarted = System.nanoTime();
 				graph.removeVertex(s);
 				
-				EdmondsMaximumCardinalityMatching<Integer, DefaultEdge> matching = new EdmondsMaximumCardinalityMatching<>(graph);
-				Matching<Integer, DefaultEdge> theMatching = matching.getMatching();
-				double newWeight = theMatching.getWeight();
+				int newMatchingSize = matching.computeMaximumMatching();
+				matchingNanos += System.nanoTime() - matchingStarted;
+				checked++;
 				
-				if (newWeight < oldWeight) {
-					falses.add(s);
+				if (newMatchingSize < oldMatchingSize) {
+					falses.set(s);
 				}
 				else {
-					trues.add(s);
+					trues.set(s);
 				}
 				
-				graph.addVertex(s);
-				for (int v : detachedVertices) {
-					graph.addEdge(v, s);
-				}
+				graph.restoreVertex(s);
 			}
 		}
 		
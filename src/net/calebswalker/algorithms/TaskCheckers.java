@@ -0,0 +1,98 @@
+package net.calebswalker.algorithms;
+
+import java.util.BitSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+
+/*
+ * The oracles of the one-task-per-vertex algorithms, all made up front on masked views of the shared graph. A task
+ * borrows whichever oracle is free for its check and gives it back afterwards, so the number of oracles bounds how many
+ * checks run at once however many tasks (or threads) there are. What the tasks of a size decide is kept with the oracle
+ * that checked it until the size is collected.
+ */
+final class TaskCheckers {
+
+	interface Check {
+		void run(Checker checker);
+	}
+
+	private final Checker[] checkers;
+	private final BlockingQueue<Checker> free;
+
+	TaskCheckers(DivisorGraph graph, int oracleCount, int maxSize) {
+		checkers = new Checker[oracleCount];
+		free = new ArrayBlockingQueue<>(oracleCount);
+		for (int i = 0; i < oracleCount; i++) {
+			checkers[i] = new Checker(new DeletionOracle(new BlossomMatching(graph.maskedView())), maxSize);
+			free.add(checkers[i]);
+		}
+	}
+
+	// Runs the check with a free oracle, waiting for one while all of them are in use
+	void check(Check check) {
+		Checker checker;
+		try {
+			checker = free.take();
+		} catch (InterruptedException e) { // The size was given up on
+			Thread.currentThread().interrupt();
+			return;
+		}
+		try {
+			check.run(checker);
+		} finally {
+			free.add(checker);
+		}
+	}
+
+	// Adds what every checker decided since the last call to the size's sets, once all of the size's tasks are done
+	void collect(BitSet trues, BitSet falses, SizeCounter sizeCounter) {
+		for (Checker checker : checkers) {
+			trues.or(checker.trues);
+			falses.or(checker.falses);
+			sizeCounter.addChecks(checker.checked, checker.matchingNanos);
+			checker.trues.clear();
+			checker.falses.clear();
+			checker.checked = 0;
+			checker.matchingNanos = 0;
+		}
+	}
+
+	static final class Checker {
+
+		final DeletionOracle oracle;
+		final BlossomMatching matching;
+		final DivisorGraph graph;
+		final BitSet trues = new BitSet();
+		final BitSet falses = new BitSet();
+		int checked;
+		long matchingNanos;
+		final int[] detachedVertices;
+		final int[] localVertices;
+		final int[] rotated;
+		private int loadedSize;
+
+		private Checker(DeletionOracle oracle, int maxSize) {
+			this.oracle = oracle;
+			this.matching = oracle.getMatching();
+			this.graph = matching.getGraph();
+			this.detachedVertices = new int[maxSize + 1];
+			this.localVertices = new int[maxSize + 1];
+			this.rotated = new int[maxSize + 1];
+		}
+
+		// Loads the size's base matching, unless this checker already has for an earlier task of the same size
+		void load(int size, int[] baseMates, int matchingSize) {
+			if (loadedSize == size)
+				return;
+			long loadStarted = System.nanoTime();
+			oracle.loadBaseMatching(baseMates, matchingSize);
+			matchingNanos += System.nanoTime() - loadStarted;
+			loadedSize = size;
+		}
+
+	}
+}
@@ -1,12 +1,18 @@
 package net.calebswalker.algorithms;
 
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.Checkpoint;
+
 public abstract class TestCaseAlgorithm {
 
 	private String algorithmName;
+	private PruningMetrics metrics = PruningMetrics.NONE;
 
 	public TestCaseAlgorithm(String algorithmName) {
 		this.algorithmName = algorithmName;
@@ -16,6 +22,40 @@ public abstract class TestCaseAlgorithm {
 		return algorithmName;
 	}
 	
-	public abstract void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException;
+	// Receives the pruning counters of every size of the following runs
+	public void setMetrics(PruningMetrics metrics) {
+		this.metrics = metrics == null ? PruningMetrics.NONE : metrics;
+	}
+	
+	protected final PruningMetrics getMetrics() {
+		return metrics;
+	}
+	
+	// Hands every finished board size to the sink as soon as it is done
+	public abstract void run(int maxValue, BoardResultSink sink) throws IOException;
+	
+	public void run(int maxValue, TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) throws IOException {
+		run(maxValue, BoardResultSink.toMaps(totalTrues, totalFalses));
+	}
+	
+	// Computes the sizes after the seed's board up to maxValue, taking the seed's trues and falses as already known
+	public abstract void continueFrom(Checkpoint seed, int maxValue, BoardResultSink sink) throws IOException;
+	
+	// Loads the seed's matching as the oracle's base matching, or computes one if the seed only has the board
+	protected static int seedBaseMatching(DeletionOracle oracle, Checkpoint seed) {
+		if (!seed.hasMatching())
+			return oracle.extendBaseMatching();
+		
+		int[] mates = new int[seed.getSize() + 1];
+		seed.copyMatesInto(mates);
+		return oracle.loadBaseMatching(mates, seed.getMatchingSize());
+	}
+	
+	// True if every bit of subset is also set in set
+	protected static boolean containsAll(BitSet set, BitSet subset) {
+		BitSet outside = (BitSet) subset.clone();
+		outside.andNot(set);
+		return outside.isEmpty();
+	}
 	
 }
@@ -0,0 +1,63 @@
+package net.calebswalker.algorithms;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * The worker threads of a parallel algorithm. They are started once per run and handed the tasks of every board size
+ * in turn, so no thread is created or torn down between sizes.
+ */
+final class WorkerPool implements AutoCloseable {
+
+	private final ExecutorService executor;
+	private final List<Future<?>> pending = new ArrayList<>();
+
+	WorkerPool(int threadCount) {
+		AtomicInteger created = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+			Thread thread = new Thread(runnable, "F&M worker " + created.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// Runs every task on the workers and returns once all of them are done
+	void runAll(List<? extends Runnable> tasks) throws IOException {
+		start(tasks);
+		await();
+	}
+
+	// Hands every task to the workers without waiting, so the caller can get on with something else meanwhile
+	void start(List<? extends Runnable> tasks) {
+		for (Runnable task : tasks)
+			pending.add(executor.submit(task));
+	}
+
+	// Returns once every started task is done
+	void await() throws IOException {
+		try {
+			for (Future<?> future : pending)
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while checking a board size!", e);
+		} catch (ExecutionException e) {
+			throw new IOException("A worker failed!", e.getCause());
+		} finally {
+			for (Future<?> future : pending)
+				future.cancel(true);
+			pending.clear();
+		}
+	}
+
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,119 @@
+package net.calebswalker.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import net.calebswalker.algorithms.TestCaseAlgorithm;
+import net.calebswalker.util.BoardResults;
+import net.calebswalker.util.FileHelper;
+
+/*
+ * One full run of an algorithm from size 1 to maxSize per invocation. Every trial's last results are checked against
+ * the reference boards, so a broken algorithm fails its benchmark instead of reporting a time.
+ * threadCount only applies to the parallel algorithms; the serial ones are run with threadCount 1 only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 3, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class AlgorithmBenchmark {
+
+	static final String[] SERIAL_ALGORITHMS = { "StandardAlgorithm", "StandardConservedAlgorithm", "Standard1RotationConservedAlgorithm",
+			"Standard2RotationConservedAlgorithm", "StandardDiscoveryConservedAlgorithm", "StandardDecompositionAlgorithm" };
+	static final String[] PARALLEL_ALGORITHMS = { "StandardParallelAlgorithm", "StandardForkJoinAlgorithm", "StandardConservedParallelAlgorithm",
+			"StandardConservedTaskParallelAlgorithm", "Standard1RotationConservedParallelAlgorithm", "Standard1RotationConservedTaskParallelAlgorithm",
+			"Standard2RotationConservedParallelAlgorithm", "Standard2RotationConservedTaskParallelAlgorithm", "StandardDiscoveryConservedParallelAlgorithm",
+			"StandardDiscoveryConservedTaskParallelAlgorithm" };
+
+	@Param({ "StandardAlgorithm", "StandardConservedAlgorithm", "Standard1RotationConservedAlgorithm", "Standard2RotationConservedAlgorithm",
+			"StandardDiscoveryConservedAlgorithm", "StandardDecompositionAlgorithm" })
+	public String algorithm;
+
+	@Param({ "50", "100", "250", "500" })
+	public int maxSize;
+
+	@Param({ "1" })
+	public int threadCount;
+
+	private TestCaseAlgorithm instance;
+	private BoardResults results;
+
+	@Setup(Level.Trial)
+	public void setUp() throws ReflectiveOperationException {
+		instance = create(algorithm, threadCount);
+		FileHelper.init();
+		if (maxSize > FileHelper.getMaxSize()) {
+			throw new IllegalArgumentException("maxSize cannot exceed " + FileHelper.getMaxSize() + "!");
+		}
+	}
+
+	@Benchmark
+	public BoardResults run() throws IOException {
+		results = new BoardResults();
+		instance.run(maxSize, results);
+		return results;
+	}
+
+	@TearDown(Level.Trial)
+	public void validate() {
+		for (int size = results.getFirstSize(); size <= results.getLastSize(); size++) {
+			if (!results.getTrues(size).equals(FileHelper.getTrues(size)) || !results.getFalses(size).equals(FileHelper.getFalses(size))) {
+				throw new IllegalStateException(instance.getAlgorithmName() + " got board size " + size + " wrong!");
+			}
+		}
+	}
+
+	// The parallel algorithms take their thread count in the constructor, the serial ones take nothing
+	static TestCaseAlgorithm create(String algorithm, int threadCount) throws ReflectiveOperationException {
+		Class<? extends TestCaseAlgorithm> type = Class.forName("net.calebswalker.algorithms." + algorithm).asSubclass(TestCaseAlgorithm.class);
+		try {
+			return type.getConstructor(int.class).newInstance(threadCount);
+		} catch (NoSuchMethodException e) {
+			if (threadCount != 1) {
+				throw new IllegalArgumentException(algorithm + " is not parallel, threadCount must be 1!");
+			}
+			return type.getConstructor().newInstance();
+		}
+	}
+
+	/*
+	 * Runs the serial algorithms once and the parallel ones at every thread count, with the GC profiler on.
+	 * Any other JMH options given on the command line (-f, -wi, -p maxSize=..., -rf json, ...) are applied to both runs.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		String[] threadCounts = commandLine.getParameter("threadCount").hasValue()
+				? commandLine.getParameter("threadCount").get().toArray(new String[0])
+				: new String[] { "2", "4", "6", "8" };
+
+		new Runner(options(commandLine).param("algorithm", SERIAL_ALGORITHMS).param("threadCount", "1").build()).run();
+		new Runner(options(commandLine).param("algorithm", PARALLEL_ALGORITHMS).param("threadCount", threadCounts).build()).run();
+	}
+
+	private static ChainedOptionsBuilder options(CommandLineOptions commandLine) {
+		return new OptionsBuilder().parent(commandLine).include(AlgorithmBenchmark.class.getName() + ".run").addProfiler(GCProfiler.class);
+	}
+}
@@ -0,0 +1,258 @@
+package net.calebswalker.benchmarks;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.jgrapht.Graph;
+import org.jgrapht.GraphType;
+import org.jgrapht.graph.AbstractGraph;
+import org.jgrapht.graph.DefaultEdge;
+import org.jgrapht.graph.DefaultGraphType;
+
+import net.calebswalker.graph.DivisorGraph;
+
+// Read-only JGraphT view of the live vertices of a divisor graph, so the JGraphT matching can be benchmarked on the same board
+final class DivisorGraphView extends AbstractGraph<Integer, DefaultEdge> {
+
+	private final DivisorGraph graph;
+
+	private final Set<Integer> vertexSet = new AbstractSet<Integer>() {
+		@Override
+		public Iterator<Integer> iterator() {
+			return new Iterator<Integer>() {
+				private int next = advance(1);
+
+				private int advance(int from) {
+					while (from <= graph.size() && !graph.containsVertex(from))
+						from++;
+					return from;
+				}
+
+				@Override
+				public boolean hasNext() {
+					return next <= graph.size();
+				}
+
+				@Override
+				public Integer next() {
+					if (next > graph.size())
+						throw new NoSuchElementException();
+					int v = next;
+					next = advance(v + 1);
+					return v;
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return graph.vertexCount();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof Integer && graph.containsVertex((Integer) o);
+		}
+	};
+
+	DivisorGraphView(DivisorGraph graph) {
+		this.graph = graph;
+	}
+
+	@Override
+	public Set<DefaultEdge> getAllEdges(Integer u, Integer v) {
+		Set<DefaultEdge> edges = new LinkedHashSet<>();
+		DefaultEdge e = getEdge(u, v);
+		if (e != null)
+			edges.add(e);
+		return edges;
+	}
+
+	@Override
+	public DefaultEdge getEdge(Integer u, Integer v) {
+		if (u == null || v == null || !graph.containsEdge(u, v))
+			return null;
+		return new Edge(u, v);
+	}
+
+	@Override
+	public Supplier<Integer> getVertexSupplier() {
+		return null;
+	}
+
+	@Override
+	public Supplier<DefaultEdge> getEdgeSupplier() {
+		return null;
+	}
+
+	@Override
+	public DefaultEdge addEdge(Integer u, Integer v) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addEdge(Integer u, Integer v, DefaultEdge e) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Integer addVertex() {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean addVertex(Integer v) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean containsEdge(DefaultEdge e) {
+		if (!(e instanceof Edge))
+			return false;
+		Edge edge = (Edge) e;
+		return graph.containsEdge(edge.source, edge.target);
+	}
+
+	@Override
+	public boolean containsVertex(Integer v) {
+		return v != null && graph.containsVertex(v);
+	}
+
+	// Every edge once, from its smaller end
+	@Override
+	public Set<DefaultEdge> edgeSet() {
+		Set<DefaultEdge> edges = new LinkedHashSet<>();
+		for (int v = 1; v <= graph.size(); v++) {
+			if (!graph.containsVertex(v))
+				continue;
+			for (int n : graph.neighborsOf(v)) {
+				if (n > v)
+					edges.add(new Edge(v, n));
+			}
+		}
+		return edges;
+	}
+
+	@Override
+	public int degreeOf(Integer v) {
+		return graph.degreeOf(v);
+	}
+
+	@Override
+	public Set<DefaultEdge> edgesOf(Integer v) {
+		Set<DefaultEdge> edges = new LinkedHashSet<>();
+		for (int n : graph.neighborsOf(v))
+			edges.add(new Edge(v, n));
+		return edges;
+	}
+
+	@Override
+	public int inDegreeOf(Integer v) {
+		return degreeOf(v);
+	}
+
+	@Override
+	public Set<DefaultEdge> incomingEdgesOf(Integer v) {
+		return edgesOf(v);
+	}
+
+	@Override
+	public int outDegreeOf(Integer v) {
+		return degreeOf(v);
+	}
+
+	@Override
+	public Set<DefaultEdge> outgoingEdgesOf(Integer v) {
+		return edgesOf(v);
+	}
+
+	@Override
+	public DefaultEdge removeEdge(Integer u, Integer v) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeEdge(DefaultEdge e) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public boolean removeVertex(Integer v) {
+		throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public Set<Integer> vertexSet() {
+		return vertexSet;
+	}
+
+	@Override
+	public Integer getEdgeSource(DefaultEdge e) {
+		return ((Edge) e).source;
+	}
+
+	@Override
+	public Integer getEdgeTarget(DefaultEdge e) {
+		return ((Edge) e).target;
+	}
+
+	@Override
+	public GraphType getType() {
+		return DefaultGraphType.simple();
+	}
+
+	@Override
+	public double getEdgeWeight(DefaultEdge e) {
+		return Graph.DEFAULT_EDGE_WEIGHT;
+	}
+
+	@Override
+	public void setEdgeWeight(DefaultEdge e, double weight) {
+		throw new UnsupportedOperationException();
+	}
+
+	private static final class Edge extends DefaultEdge {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int source;
+		private final int target;
+
+		private Edge(int u, int v) {
+			this.source = Math.min(u, v);
+			this.target = Math.max(u, v);
+		}
+
+		@Override
+		protected Object getSource() {
+			return source;
+		}
+
+		@Override
+		protected Object getTarget() {
+			return target;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Edge))
+				return false;
+			Edge other = (Edge) obj;
+			return source == other.source && target == other.target;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * source + target;
+		}
+
+		@Override
+		public String toString() {
+			return "(" + source + " : " + target + ")";
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package net.calebswalker.benchmarks;
+
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.jgrapht.alg.interfaces.MatchingAlgorithm;
+import org.jgrapht.alg.matching.EdmondsMaximumCardinalityMatching;
+import org.jgrapht.graph.DefaultEdge;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.calebswalker.graph.BlossomMatching;
+import net.calebswalker.graph.DeletionOracle;
+import net.calebswalker.graph.DivisorGraph;
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * The stages of computing one board size, each on its own: building the graph, one maximum matching, one vertex checked
+ * by delete/repair/restore or by a matching from scratch, and the propagation steps the rotation and discovery algorithms
+ * run after a vertex turns out true. The fixtures are built once per trial for a board of the given size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+public class GraphBenchmark {
+
+	private static final int SAMPLES = 64;
+
+	@Param({ "250", "1000", "5000" })
+	public int size;
+
+	private DivisorSieve sieve;
+	private DivisorGraph graph;
+	private BlossomMatching scratchMatching;
+	private DeletionOracle oracle;
+	private int[] baseMates;
+	private int[] outerVertices;
+	private int outerCount;
+
+	// Vertices whose deletion leaves the matching size alone, with the repaired matching that deletion produced
+	private int[] trueSamples;
+	private int[][] repairedMates;
+
+	private int[] neighbors;
+	private int[] localVertices;
+	private int[] rotated;
+	private final BitSet trues = new BitSet();
+	private final BitSet toCheck = new BitSet();
+
+	private int nextDeletion = 2;
+	private int nextRemoval = 2;
+	private int nextSample = 0;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		sieve = DivisorSieve.shared(size);
+		graph = DivisorGraph.ofSize(sieve, size);
+		scratchMatching = new BlossomMatching(graph);
+		oracle = new DeletionOracle(new BlossomMatching(graph));
+		int baseSize = oracle.computeBaseMatching();
+
+		baseMates = new int[size + 1];
+		oracle.getMatching().copyMatesInto(baseMates);
+		outerVertices = new int[size + 1];
+		for (int v = 1; v <= size; v++) {
+			if (baseMates[v] == 0)
+				outerVertices[outerCount++] = v;
+		}
+
+		int[] candidates = new int[size + 1];
+		int candidateCount = 0;
+		for (int s = 2; s <= size; s++) {
+			if (oracle.deleteVertex(s) == baseSize)
+				candidates[candidateCount++] = s;
+			oracle.restoreVertex();
+		}
+		int sampleCount = Math.min(SAMPLES, candidateCount);
+		trueSamples = new int[sampleCount];
+		repairedMates = new int[sampleCount][size + 1];
+		for (int i = 0; i < sampleCount; i++) { // Spread over the whole board
+			trueSamples[i] = candidates[(int) ((long) i * candidateCount / sampleCount)];
+			oracle.deleteVertex(trueSamples[i]);
+			oracle.getMatching().copyMatesInto(repairedMates[i]);
+			oracle.restoreVertex();
+		}
+
+		neighbors = new int[size + 1];
+		localVertices = new int[size + 1];
+		rotated = new int[size + 1];
+	}
+
+	@Benchmark
+	public DivisorGraph buildGraph() {
+		return DivisorGraph.ofSize(sieve, size);
+	}
+
+	// The way the conserved algorithms build it, one vertex per board size
+	@Benchmark
+	public DivisorGraph growGraph() {
+		DivisorGraph grown = new DivisorGraph(sieve, size);
+		for (int v = 1; v <= size; v++)
+			grown.addVertex();
+		return grown;
+	}
+
+	@Benchmark
+	public int blossomMatching() {
+		return scratchMatching.computeMaximumMatching();
+	}
+
+	// JGraphT's matching on the same graph, through a read-only adapter rather than a graph of its own
+	@Benchmark
+	public MatchingAlgorithm.Matching<Integer, DefaultEdge> edmondsMatching() {
+		return new EdmondsMaximumCardinalityMatching<>(new DivisorGraphView(graph)).getMatching();
+	}
+
+	// One vertex of the board checked against the base matching, cycling through all of them
+	@Benchmark
+	public int deleteAndRestore() {
+		int s = nextDeletion;
+		nextDeletion = s == size ? 2 : s + 1;
+
+		int newSize = oracle.deleteVertex(s);
+		oracle.restoreVertex();
+		return newSize;
+	}
+
+	// The same check the way the standard algorithms do it, with a maximum matching from scratch for every vertex
+	@Benchmark
+	public int removeAndRecompute() {
+		int s = nextRemoval;
+		nextRemoval = s == size ? 2 : s + 1;
+
+		graph.removeVertex(s);
+		int newSize = scratchMatching.computeMaximumMatching();
+		graph.restoreVertex(s);
+		return newSize;
+	}
+
+	// The 2 partial rotation run after s turns out true: the mates of s's neighbors, then the mates of their neighbors
+	@Benchmark
+	public BitSet rotationPropagation() {
+		int sample = nextSample();
+		int s = trueSamples[sample];
+		int[] mates = repairedMates[sample];
+		resetSets();
+
+		int rotatedCount = 0;
+		int neighborCount = graph.neighborsOf(s, neighbors);
+		for (int i = 0; i < neighborCount; i++) {
+			int pair = mates[neighbors[i]];
+			if (pair == 0)
+				continue;
+
+			trues.set(pair);
+			toCheck.clear(pair);
+			rotated[rotatedCount++] = pair;
+		}
+
+		for (int i = 0; i < rotatedCount; i++) {
+			int localCount = graph.neighborsOf(rotated[i], localVertices);
+			for (int j = 0; j < localCount; j++) {
+				int pair = mates[localVertices[j]];
+				if (pair == 0)
+					continue;
+
+				trues.set(pair);
+				toCheck.clear(pair);
+			}
+		}
+		return trues;
+	}
+
+	// The outer vertex transform run after s turns out true: alternating walks from every vertex the base matching leaves exposed
+	@Benchmark
+	public BitSet discoveryPropagation() {
+		int[] mates = repairedMates[nextSample()];
+		resetSets();
+
+		for (int i = 0; i < outerCount; i++) {
+			int x = outerVertices[i];
+			while (mates[x] != 0) {
+				int z = baseMates[mates[x]];
+				if (z == 0)
+					break;
+
+				trues.set(z);
+				toCheck.clear(z);
+
+				x = z;
+			}
+		}
+		return trues;
+	}
+
+	private int nextSample() {
+		int sample = nextSample;
+		nextSample = sample + 1 == trueSamples.length ? 0 : sample + 1;
+		return sample;
+	}
+
+	private void resetSets() {
+		trues.clear();
+		toCheck.set(2, size + 1);
+	}
+}
@@ -0,0 +1,289 @@
+package net.calebswalker.graph;
+
+import java.util.Arrays;
+
+/*
+ * Edmonds' blossom algorithm for maximum cardinality matching on a DivisorGraph.
+ * All working state lives in primitive arrays that are reused between calls, so once the arrays have grown to the
+ * size of the graph, computing a matching allocates nothing. Vertex 0 is never a vertex of the board and is used as "none".
+ */
+public class BlossomMatching {
+
+	private final DivisorGraph graph;
+
+	private int[] mate = new int[0];
+	private int[] parent = new int[0];
+	private int[] base = new int[0];
+	private int[] queue = new int[0];
+	private int[] neighbors = new int[0];
+	private boolean[] used = new boolean[0];
+	private boolean[] blossom = new boolean[0];
+	private boolean[] onPath = new boolean[0];
+	private int head;
+	private int tail;
+
+	private int matchingSize;
+	private int maximumThrough;
+
+	public BlossomMatching(DivisorGraph graph) {
+		this.graph = graph;
+	}
+
+	public DivisorGraph getGraph() {
+		return graph;
+	}
+
+	public int getMatchingSize() {
+		return matchingSize;
+	}
+
+	public int getMaximumThrough() {
+		return maximumThrough;
+	}
+
+	public int mateOf(int v) {
+		return v < mate.length ? mate[v] : 0;
+	}
+
+	public boolean isExposed(int v) {
+		return mateOf(v) == 0;
+	}
+
+	public void copyMatesInto(int[] dest) {
+		int length = Math.min(dest.length, mate.length);
+		System.arraycopy(mate, 0, dest, 0, length);
+		Arrays.fill(dest, length, dest.length, 0);
+	}
+
+	// Replaces the current matching with the one described by mates (0 = exposed), which must be a maximum matching of the graph
+	public void loadMates(int[] mates, int matchingSize) {
+		loadMates(mates, matchingSize, graph.size());
+	}
+
+	// Same as loadMates(int[], int), but the matching is only known to be maximum for the graph up to vertex maximumThrough
+	public void loadMates(int[] mates, int matchingSize, int maximumThrough) {
+		int size = graph.size();
+		ensureCapacity(size);
+		int length = Math.min(mates.length, size + 1);
+		System.arraycopy(mates, 0, mate, 0, length);
+		Arrays.fill(mate, length, size + 1, 0);
+		this.matchingSize = matchingSize;
+		this.maximumThrough = Math.min(size, maximumThrough);
+	}
+
+	// Drops the matched edge at v, if any
+	public void unmatch(int v) {
+		int partner = mateOf(v);
+		if (partner == 0)
+			return;
+		mate[v] = 0;
+		mate[partner] = 0;
+		matchingSize--;
+	}
+
+	// Recomputes a maximum matching of the live vertices of the graph from nothing
+	public int computeMaximumMatching() {
+		MatchingEvent event = new MatchingEvent();
+		event.begin();
+		int size = graph.size();
+		ensureCapacity(size);
+		Arrays.fill(mate, 0, size + 1, 0);
+		matchingSize = 0;
+
+		// Greedy start
+		for (int v = 1; v <= size; v++) {
+			if (mate[v] != 0 || !graph.containsVertex(v))
+				continue;
+			int degree = graph.neighborsOf(v, neighbors);
+			for (int i = 0; i < degree; i++) {
+				int u = neighbors[i];
+				if (mate[u] == 0) {
+					mate[u] = v;
+					mate[v] = u;
+					matchingSize++;
+					break;
+				}
+			}
+		}
+
+		for (int v = 1; v <= size; v++) {
+			if (mate[v] == 0 && graph.containsVertex(v))
+				augment(v);
+		}
+
+		maximumThrough = size;
+		event.commitCompute(graph, matchingSize);
+		return matchingSize;
+	}
+
+	/*
+	 * Turns the maximum matching of the graph as it was at the last computeMaximumMatching(), loadMates() or extendMatching()
+	 * into a maximum matching of the graph now, with at most one augmenting-path search per vertex added since.
+	 * Adding a single vertex v can only create augmenting paths that end at v, so the new vertices are brought back one at a time.
+	 */
+	public int extendMatching() {
+		MatchingEvent event = new MatchingEvent();
+		event.begin();
+		int size = graph.size();
+		ensureCapacity(size);
+
+		for (int v = maximumThrough + 2; v <= size; v++)
+			graph.removeVertex(v);
+		for (int v = maximumThrough + 1; v <= size; v++) {
+			graph.restoreVertex(v);
+			augment(v);
+		}
+
+		maximumThrough = size;
+		event.commit(MatchingEvent.EXTEND, 0, graph, matchingSize);
+		return matchingSize;
+	}
+
+	// Searches for an augmenting path starting at the exposed vertex root and applies it if one exists
+	public boolean augment(int root) {
+		ensureCapacity(graph.size());
+		if (mate[root] != 0 || !graph.containsVertex(root))
+			return false;
+
+		resetForest();
+		plant(root);
+		int end = growForest();
+		if (end == 0)
+			return false;
+
+		int v = end;
+		while (v != 0) {
+			int pv = parent[v];
+			int ppv = mate[pv];
+			mate[v] = pv;
+			mate[pv] = v;
+			v = ppv;
+		}
+		matchingSize++;
+		return true;
+	}
+
+	/*
+	 * Marks every vertex that is left exposed by at least one maximum matching, which is the set D of the Gallai-Edmonds
+	 * decomposition. These are exactly the vertices reachable from an exposed vertex by an even alternating path, so one
+	 * alternating forest grown from all exposed vertices at once finds them. The current matching must be maximum.
+	 */
+	public int markExposableVertices(boolean[] exposable) {
+		int size = graph.size();
+		ensureCapacity(size);
+
+		resetForest();
+		for (int v = 1; v <= size; v++) {
+			if (mate[v] == 0 && graph.containsVertex(v))
+				plant(v);
+		}
+		if (growForest() != 0)
+			throw new IllegalStateException("Matching is not maximum!");
+
+		int count = 0;
+		for (int v = 1; v <= size; v++) {
+			exposable[v] = used[v];
+			if (used[v])
+				count++;
+		}
+		return count;
+	}
+
+	private void resetForest() {
+		int size = graph.size();
+		Arrays.fill(used, 0, size + 1, false);
+		Arrays.fill(parent, 0, size + 1, 0);
+		for (int i = 0; i <= size; i++)
+			base[i] = i;
+		head = 0;
+		tail = 0;
+	}
+
+	private void plant(int root) {
+		used[root] = true;
+		queue[tail++] = root;
+	}
+
+	// Grows the alternating forest from the planted roots, returning the exposed end of an augmenting path or 0 if there is none
+	private int growForest() {
+		int size = graph.size();
+		while (head < tail) {
+			int v = queue[head++];
+			int degree = graph.neighborsOf(v, neighbors);
+			for (int i = 0; i < degree; i++) {
+				int to = neighbors[i];
+				if (base[v] == base[to] || mate[v] == to)
+					continue;
+
+				if ((mate[to] == 0 && used[to]) || (mate[to] != 0 && parent[mate[to]] != 0)) { // Found a blossom
+					int currentBase = lowestCommonAncestor(v, to);
+					Arrays.fill(blossom, 0, size + 1, false);
+					markPath(v, currentBase, to);
+					markPath(to, currentBase, v);
+					for (int j = 1; j <= size; j++) {
+						if (blossom[base[j]]) {
+							base[j] = currentBase;
+							if (!used[j]) {
+								used[j] = true;
+								queue[tail++] = j;
+							}
+						}
+					}
+				}
+				else if (parent[to] == 0) {
+					parent[to] = v;
+					if (mate[to] == 0)
+						return to;
+					int next = mate[to];
+					used[next] = true;
+					queue[tail++] = next;
+				}
+			}
+		}
+		return 0;
+	}
+
+	private int lowestCommonAncestor(int a, int b) {
+		int size = graph.size();
+		Arrays.fill(onPath, 0, size + 1, false);
+		while (true) {
+			a = base[a];
+			onPath[a] = true;
+			if (mate[a] == 0)
+				break;
+			a = parent[mate[a]];
+		}
+		while (true) {
+			b = base[b];
+			if (onPath[b])
+				return b;
+			if (mate[b] == 0) // b is in another tree, which only happens when the matching was not maximum
+				throw new IllegalStateException("Matching is not maximum!");
+			b = parent[mate[b]];
+		}
+	}
+
+	private void markPath(int v, int b, int child) {
+		while (base[v] != b) {
+			blossom[base[v]] = true;
+			blossom[base[mate[v]]] = true;
+			parent[v] = child;
+			child = mate[v];
+			v = parent[mate[v]];
+		}
+	}
+
+	private void ensureCapacity(int size) {
+		if (mate.length > size)
+			return;
+		int capacity = Math.max(size + 1, mate.length * 2);
+		mate = Arrays.copyOf(mate, capacity);
+		parent = new int[capacity];
+		base = new int[capacity];
+		queue = new int[capacity];
+		neighbors = new int[capacity];
+		used = new boolean[capacity];
+		blossom = new boolean[capacity];
+		onPath = new boolean[capacity];
+	}
+}
@@ -0,0 +1,97 @@
+package net.calebswalker.graph;
+
+/*
+ * Answers "is the maximum matching smaller without s" by repairing a known maximum matching (the base matching) instead
+ * of recomputing one. Deleting s can only cost the edge at s, and any augmenting path for what is left must start at s's
+ * old partner, so a single search from that partner settles the question.
+ */
+public class DeletionOracle {
+
+	private final DivisorGraph graph;
+	private final BlossomMatching matching;
+
+	private int[] baseMates = new int[0];
+	private int baseMatchingSize;
+	private int baseThrough;
+	private int deleted;
+
+	public DeletionOracle(BlossomMatching matching) {
+		this.graph = matching.getGraph();
+		this.matching = matching;
+	}
+
+	public BlossomMatching getMatching() {
+		return matching;
+	}
+
+	public int getBaseMatchingSize() {
+		return baseMatchingSize;
+	}
+
+	public int baseMateOf(int v) {
+		return v < baseMates.length ? baseMates[v] : 0;
+	}
+
+	public int computeBaseMatching() {
+		restoreVertex();
+		matching.computeMaximumMatching();
+		return saveBaseMatching();
+	}
+
+	// Carries the base matching over to the vertices added to the graph since it was taken
+	public int extendBaseMatching() {
+		restoreVertex();
+		matching.extendMatching();
+		return saveBaseMatching();
+	}
+
+	// Takes the current matching, which must be maximum, as the base matching
+	public int saveBaseMatching() {
+		if (baseMates.length <= graph.size())
+			baseMates = new int[Math.max(graph.size() + 1, baseMates.length * 2)];
+		matching.copyMatesInto(baseMates);
+		baseMatchingSize = matching.getMatchingSize();
+		baseThrough = matching.getMaximumThrough();
+		return baseMatchingSize;
+	}
+
+	// Takes the given maximum matching (for example one computed on another copy of the graph) as the base matching
+	public int loadBaseMatching(int[] mates, int matchingSize) {
+		restoreVertex();
+		matching.loadMates(mates, matchingSize);
+		return saveBaseMatching();
+	}
+
+	/*
+	 * Removes s from the graph and repairs the base matching into a maximum matching of what is left, which can then be
+	 * read from getMatching(). Returns the new maximum matching size. Must be undone with restoreVertex() before the next call.
+	 */
+	public int deleteVertex(int s) {
+		if (deleted != 0)
+			throw new IllegalStateException("Vertex " + deleted + " has not been restored!");
+		deleted = s;
+		MatchingEvent event = new MatchingEvent();
+		event.begin();
+
+		int partner = matching.mateOf(s);
+		matching.unmatch(s);
+		graph.removeVertex(s);
+		if (partner != 0)
+			matching.augment(partner);
+
+		event.commit(MatchingEvent.DELETE, s, graph, matching.getMatchingSize());
+		return matching.getMatchingSize();
+	}
+
+	public boolean isMatchingSmallerWithout(int s) {
+		return deleteVertex(s) < baseMatchingSize;
+	}
+
+	public void restoreVertex() {
+		if (deleted == 0)
+			return;
+		graph.restoreVertex(deleted);
+		deleted = 0;
+		matching.loadMates(baseMates, baseMatchingSize, baseThrough);
+	}
+}
@@ -0,0 +1,235 @@
+package net.calebswalker.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import net.calebswalker.util.DivisorSieve;
+
+/*
+ * The board graph for sizes 1..size, where u and v are adjacent when one divides the other.
+ * Only the proper divisors of every vertex are stored (CSR style: divisors[divisorStart[v] .. divisorStart[v + 1]]);
+ * the multiples of v are implicit (2v, 3v, ... <= size). Vertices can be temporarily removed with a mask.
+ * Masked views share the divisor lists of the graph they were made from and only have a mask of their own.
+ */
+public class DivisorGraph {
+
+	private final DivisorSieve sieve;
+
+	private int size;
+	private int[] divisorStart;
+	private int[] divisors;
+
+	private boolean[] removed;
+	private int removedCount;
+
+	private final DivisorGraph owner;
+	private final List<DivisorGraph> maskedViews = new ArrayList<>();
+
+	public DivisorGraph() {
+		this(16);
+	}
+
+	public DivisorGraph(int expectedSize) {
+		this(new DivisorSieve(expectedSize), expectedSize);
+	}
+
+	// Graphs that grow side by side (one per thread) can share a single sieve
+	public DivisorGraph(DivisorSieve sieve, int expectedSize) {
+		int capacity = Math.max(1, expectedSize);
+		this.sieve = sieve;
+		this.owner = null;
+		divisorStart = new int[capacity + 2];
+		divisors = new int[capacity * 4];
+		removed = new boolean[capacity + 1];
+	}
+
+	private DivisorGraph(DivisorGraph owner) {
+		this.sieve = owner.sieve;
+		this.owner = owner;
+		removed = new boolean[owner.removed.length];
+	}
+
+	/*
+	 * A graph with the same vertices and edges that reads this graph's divisor lists instead of copying them, but removes
+	 * vertices through a mask of its own, so every thread can delete vertices without a graph of its own. The view grows
+	 * whenever this graph does and cannot grow by itself; it must not be read while this graph is adding vertices.
+	 */
+	public DivisorGraph maskedView() {
+		DivisorGraph masked = new DivisorGraph(this);
+		maskedViews.add(masked);
+		updateViews();
+		return masked;
+	}
+
+	private void updateViews() {
+		for (DivisorGraph masked : maskedViews) {
+			masked.size = size;
+			masked.divisorStart = divisorStart;
+			masked.divisors = divisors;
+			if (masked.removed.length < removed.length)
+				masked.removed = Arrays.copyOf(masked.removed, removed.length);
+		}
+	}
+
+	// Builds the whole board 1..size at once: every d is appended to each of its multiples, so no factoring is needed
+	public static DivisorGraph ofSize(int size) {
+		return ofSize(new DivisorSieve(size), size);
+	}
+
+	public static DivisorGraph ofSize(DivisorSieve sieve, int size) {
+		sieve.ensureLimit(size);
+		DivisorGraph graph = new DivisorGraph(sieve, size);
+		if (size < 1)
+			return graph;
+
+		int[] start = graph.divisorStart;
+		start[1] = 0;
+		for (int v = 1; v <= size; v++)
+			start[v + 1] = start[v] + sieve.divisorCountOf(v) - 1;
+
+		int[] fill = Arrays.copyOf(start, size + 1);
+		int[] divisors = new int[start[size + 1]];
+		for (int d = 1; d + d <= size; d++) {
+			for (int m = d + d; m <= size; m += d)
+				divisors[fill[m]++] = d;
+		}
+
+		graph.divisors = divisors;
+		graph.size = size;
+		return graph;
+	}
+
+	public DivisorSieve getSieve() {
+		return sieve;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int vertexCount() {
+		return size - removedCount;
+	}
+
+	public int addVertex() {
+		if (owner != null) {
+			throw new IllegalStateException("A masked view only grows with the graph it was made from!");
+		}
+		int v = size + 1;
+		ensureVertexCapacity(v);
+
+		// The sieve also writes v itself after the proper divisors, so room is made for all of them
+		int start = divisorStart[v];
+		int count = sieve.divisorCountOf(v);
+		if (start + count > divisors.length)
+			divisors = Arrays.copyOf(divisors, Math.max(start + count, divisors.length * 2));
+		divisorStart[v + 1] = start + sieve.properDivisorsOf(v, divisors, start);
+
+		size = v;
+		updateViews();
+		return v;
+	}
+
+	public void growTo(int newSize) {
+		while (size < newSize)
+			addVertex();
+	}
+
+	private void ensureVertexCapacity(int v) {
+		if (v + 1 >= divisorStart.length) {
+			int capacity = Math.max(v + 2, divisorStart.length * 2);
+			divisorStart = Arrays.copyOf(divisorStart, capacity);
+			removed = Arrays.copyOf(removed, capacity);
+		}
+	}
+
+	public boolean containsVertex(int v) {
+		return v >= 1 && v <= size && !removed[v];
+	}
+
+	public void removeVertex(int v) {
+		if (containsVertex(v)) {
+			removed[v] = true;
+			removedCount++;
+		}
+	}
+
+	// The lowest removed vertex, 0 if every vertex is live
+	public int firstRemovedVertex() {
+		if (removedCount == 0)
+			return 0;
+		for (int v = 1; v <= size; v++) {
+			if (removed[v])
+				return v;
+		}
+		return 0;
+	}
+
+	public void restoreVertex(int v) {
+		if (v >= 1 && v <= size && removed[v]) {
+			removed[v] = false;
+			removedCount--;
+		}
+	}
+
+	public boolean containsEdge(int u, int v) {
+		if (u == v || !containsVertex(u) || !containsVertex(v))
+			return false;
+		return u < v ? v % u == 0 : u % v == 0;
+	}
+
+	public int degreeOf(int v) {
+		if (!containsVertex(v))
+			throw new IllegalArgumentException("no such vertex in graph: " + v);
+		if (removedCount == 0)
+			return divisorStart[v + 1] - divisorStart[v] + size / v - 1;
+
+		int degree = 0;
+		for (int i = divisorStart[v]; i < divisorStart[v + 1]; i++) {
+			if (!removed[divisors[i]])
+				degree++;
+		}
+		for (int m = v + v; m <= size; m += v) {
+			if (!removed[m])
+				degree++;
+		}
+		return degree;
+	}
+
+	// Writes the neighbors of v into out (divisors first, then multiples) and returns how many were written
+	public int neighborsOf(int v, int[] out) {
+		int count = 0;
+		for (int i = divisorStart[v]; i < divisorStart[v + 1]; i++) {
+			int d = divisors[i];
+			if (!removed[d])
+				out[count++] = d;
+		}
+		for (int m = v + v; m <= size; m += v) {
+			if (!removed[m])
+				out[count++] = m;
+		}
+		return count;
+	}
+
+	public int[] neighborsOf(int v) {
+		int[] out = new int[degreeOf(v)];
+		neighborsOf(v, out);
+		return out;
+	}
+
+	public BitSet neighborMaskOf(int v) {
+		BitSet mask = new BitSet(size + 1);
+		for (int i = divisorStart[v]; i < divisorStart[v + 1]; i++) {
+			int d = divisors[i];
+			if (!removed[d])
+				mask.set(d);
+		}
+		for (int m = v + v; m <= size; m += v) {
+			if (!removed[m])
+				mask.set(m);
+		}
+		return mask;
+	}
+}
@@ -0,0 +1,64 @@
+package net.calebswalker.graph;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/*
+ * Flight Recorder event for one matching computation. Created, begun and ended around the work, and only filled in
+ * and committed when a recording wants it, so with recording off it costs a couple of checks.
+ */
+@Name("net.calebswalker.Matching")
+@Label("Matching")
+@Category({ "F&M", "Matching" })
+@Description("One maximum matching computed, extended, or repaired after deleting a vertex")
+@StackTrace(false)
+final class MatchingEvent extends Event {
+
+	static final String COMPUTE = "Compute";
+	static final String EXTEND = "Extend";
+	static final String DELETE = "Delete";
+
+	@Label("Kind")
+	String kind;
+
+	@Label("Removed Vertex")
+	@Description("The vertex deleted for this matching, 0 if none")
+	int removedVertex;
+
+	@Label("Graph Size")
+	int graphSize;
+
+	@Label("Live Vertices")
+	int vertexCount;
+
+	@Label("Matching Size")
+	int matchingSize;
+
+	void commit(String kind, int removedVertex, DivisorGraph graph, int matchingSize) {
+		end();
+		if (!shouldCommit())
+			return;
+		record(kind, removedVertex, graph, matchingSize);
+	}
+
+	// A full computation, whose removed vertex takes a scan of the graph and so is only looked up when recorded
+	void commitCompute(DivisorGraph graph, int matchingSize) {
+		end();
+		if (!shouldCommit())
+			return;
+		record(COMPUTE, graph.firstRemovedVertex(), graph, matchingSize);
+	}
+
+	private void record(String kind, int removedVertex, DivisorGraph graph, int matchingSize) {
+		this.kind = kind;
+		this.removedVertex = removedVertex;
+		this.graphSize = graph.size();
+		this.vertexCount = graph.vertexCount();
+		this.matchingSize = matchingSize;
+		commit();
+	}
+}
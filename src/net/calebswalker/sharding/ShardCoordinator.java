@@ -0,0 +1,222 @@
+package net.calebswalker.sharding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+import net.calebswalker.util.BoardFiles;
+import net.calebswalker.util.BoardResultSink;
+import net.calebswalker.util.BoardResults;
+
+/*
+ * Writes "F&M Boards 4-N.txt" and its board database, into the current or a given directory, with the sizes split into
+ * ranges over ShardWorker processes, each with a heap of its own. The workers connect over TCP: the given number are
+ * started on this machine, and more can be started with the port this prints. Only connections from this machine are
+ * accepted unless another bind address (such as 0.0.0.0) is given. A range whose worker dies, disconnects or goes quiet
+ * goes back to the front of the line for the next worker, and a local worker that dies is started again. Finished ranges
+ * are written in order.
+ */
+public class ShardCoordinator implements Closeable {
+
+	private static final int RANGES_AHEAD = 64;
+	private static final int RESTARTS_PER_WORKER = 3;
+	private static final int WORKER_TIMEOUT_MILLIS = 10 * 60 * 1000; // The longest a worker may take over one board size
+
+	private final ServerSocket server;
+	private final BlockingDeque<int[]> ranges = new LinkedBlockingDeque<>();
+	private final Map<Integer, BoardResults> finished = new HashMap<>(); // By first size; also guards failure and restartsLeft
+	private IOException failure;
+	private int restartsLeft;
+	private volatile boolean done;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.err.println("Usage: ShardCoordinator <max size> [local workers] [sizes per range] [port] [output directory] [bind address]");
+			return;
+		}
+		int maxSize = Integer.parseInt(args[0]);
+		int localWorkers = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		int rangeSize = args.length > 2 ? Integer.parseInt(args[2]) : 250;
+		int port = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+		Path directory = Paths.get(args.length > 4 ? args[4] : "");
+		InetAddress bindAddress = args.length > 5 ? InetAddress.getByName(args[5]) : InetAddress.getLoopbackAddress();
+
+		try (BoardFiles files = new BoardFiles(directory, maxSize); ShardCoordinator coordinator = new ShardCoordinator(bindAddress, port)) {
+			System.out.println("Waiting for workers on " + bindAddress.getHostAddress() + " port " + coordinator.getPort() + ".");
+			for (int i = 0; i < localWorkers; i++)
+				coordinator.startLocalWorker();
+			coordinator.generate(maxSize, rangeSize, files);
+			files.commit();
+			System.out.println("Wrote " + files.getTextFile() + " and " + files.getDatabaseFile() + ".");
+		}
+	}
+
+	// Port 0 picks a free one. Only workers on this machine can connect.
+	public ShardCoordinator(int port) throws IOException {
+		this(InetAddress.getLoopbackAddress(), port);
+	}
+
+	// Listens on the given address instead, for example the wildcard address to let workers on other machines connect
+	public ShardCoordinator(InetAddress bindAddress, int port) throws IOException {
+		server = new ServerSocket(port, 50, bindAddress);
+		Thread acceptor = new Thread(this::acceptWorkers, "F&M coordinator");
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	// Starts a worker process on this machine, with the same Java and class path as this one
+	public void startLocalWorker() throws IOException {
+		synchronized (finished) {
+			restartsLeft += RESTARTS_PER_WORKER;
+		}
+		launchLocalWorker();
+	}
+
+	private void launchLocalWorker() throws IOException {
+		String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+		InetAddress address = server.getInetAddress().isAnyLocalAddress() ? InetAddress.getLoopbackAddress() : server.getInetAddress();
+		Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), ShardWorker.class.getName(),
+				address.getHostAddress(), String.valueOf(getPort())).inheritIO().start();
+		process.onExit().thenRun(this::localWorkerExited);
+	}
+
+	private void localWorkerExited() {
+		if (done)
+			return;
+		synchronized (finished) {
+			try {
+				if (restartsLeft-- <= 0)
+					throw new IOException("The local workers keep failing!");
+				launchLocalWorker();
+			} catch (IOException e) {
+				failure = e;
+				finished.notifyAll();
+			}
+		}
+	}
+
+	// Hands out the sizes 4..maxSize and passes every one to the sink in order, once the workers have computed it
+	public void generate(int maxSize, int rangeSize, BoardResultSink sink) throws IOException {
+		if (rangeSize <= 0) {
+			throw new IllegalArgumentException("Must have positive number of sizes per range!");
+		}
+
+		int next = 4;
+		int queued = 4;
+		while (next <= maxSize) {
+			while (queued <= maxSize && queued < next + (long) RANGES_AHEAD * rangeSize) {
+				int toSize = (int) Math.min(maxSize, (long) queued + rangeSize - 1);
+				ranges.add(new int[] { queued, toSize });
+				queued = toSize + 1;
+			}
+
+			BoardResults range;
+			synchronized (finished) {
+				while ((range = finished.remove(next)) == null) {
+					if (failure != null)
+						throw failure;
+					try {
+						finished.wait();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						throw new IOException("Interrupted while generating boards!", e);
+					}
+				}
+			}
+
+			for (int size = range.getFirstSize(); size <= range.getLastSize(); size++)
+				sink.accept(size, range.truesAt(size), range.falsesAt(size));
+			next = range.getLastSize() + 1;
+		}
+	}
+
+	private void acceptWorkers() {
+		while (!server.isClosed()) {
+			try {
+				Socket socket = server.accept();
+				Thread thread = new Thread(() -> serve(socket), "F&M worker " + socket.getRemoteSocketAddress());
+				thread.setDaemon(true);
+				thread.start();
+			} catch (IOException e) { // Closed
+				return;
+			}
+		}
+	}
+
+	// Feeds one worker ranges until there are none left; a range it doesn't finish is put back for the others
+	private void serve(Socket socket) {
+		int[] range = null;
+		try (Socket connection = socket) {
+			connection.setSoTimeout(WORKER_TIMEOUT_MILLIS); // A worker that goes quiet loses its range like one that disconnects
+			DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+			ShardProtocol.readHello(in);
+
+			while (!done) {
+				range = ranges.poll(100, TimeUnit.MILLISECONDS);
+				if (range == null)
+					continue;
+
+				out.writeInt(ShardProtocol.RANGE);
+				out.writeInt(range[0]);
+				out.writeInt(range[1]);
+				out.flush();
+
+				BoardResults results = new BoardResults();
+				int command;
+				while ((command = in.readInt()) == ShardProtocol.BOARD) {
+					int size = in.readInt();
+					int expected = results.isEmpty() ? range[0] : results.getLastSize() + 1;
+					if (size != expected || size > range[1])
+						throw new IOException("Worker sent board " + size + " instead of " + expected + "!");
+					BitSet trues = ShardProtocol.readBits(in, size);
+					BitSet falses = ShardProtocol.readBits(in, size);
+					results.record(size, trues, falses);
+				}
+				if (command != ShardProtocol.DONE || results.getFirstSize() != range[0] || results.getLastSize() != range[1]) {
+					throw new IOException("Worker sent an incomplete range " + range[0] + "-" + range[1] + "!");
+				}
+
+				synchronized (finished) {
+					finished.put(range[0], results);
+					finished.notifyAll();
+				}
+				range = null;
+			}
+
+			out.writeInt(ShardProtocol.QUIT);
+			out.flush();
+		} catch (IOException | InterruptedException e) {
+			if (!done)
+				System.err.println("Lost worker " + socket.getRemoteSocketAddress() + ": " + e);
+		} finally {
+			if (range != null)
+				ranges.addFirst(range);
+		}
+	}
+
+	// The workers are told to quit as soon as they ask for more work, and local ones exit when they are
+	@Override
+	public void close() throws IOException {
+		done = true;
+		server.close();
+	}
+}
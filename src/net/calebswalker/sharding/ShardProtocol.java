@@ -0,0 +1,59 @@
+package net.calebswalker.sharding;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.BitSet;
+
+/*
+ * What a coordinator and a worker say to each other over one connection (big endian, like the board files):
+ *   worker:      magic, version
+ *   coordinator: RANGE, first size, last size   or   QUIT
+ *   worker:      BOARD, size, trues, falses for every size of the range (each set as a word count then long words), then DONE
+ * A worker keeps nothing between ranges, so a range a worker never finished can be handed to any other worker.
+ */
+final class ShardProtocol {
+
+	static final int MAGIC = 0x464D5348; // "FMSH"
+	static final int VERSION = 1;
+
+	static final int QUIT = 0;
+	static final int RANGE = 1;
+	static final int BOARD = 2;
+	static final int DONE = 3;
+
+	private ShardProtocol() {
+	}
+
+	static void writeHello(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.flush();
+	}
+
+	static void readHello(DataInputStream in) throws IOException {
+		if (in.readInt() != MAGIC)
+			throw new IOException("Not a board worker!");
+		int version = in.readInt();
+		if (version != VERSION)
+			throw new IOException("Unsupported worker protocol version " + version + "!");
+	}
+
+	static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+		long[] words = bits.toLongArray();
+		out.writeInt(words.length);
+		for (long word : words)
+			out.writeLong(word);
+	}
+
+	// A set of vertices 1..size never needs more than size / 64 + 1 words; anything longer is not allocated
+	static BitSet readBits(DataInputStream in, int size) throws IOException {
+		int count = in.readInt();
+		if (count < 0 || count > size / 64 + 1)
+			throw new IOException("Board " + size + " cannot have " + count + " words!");
+		long[] words = new long[count];
+		for (int i = 0; i < words.length; i++)
+			words[i] = in.readLong();
+		return BitSet.valueOf(words);
+	}
+}
@@ -0,0 +1,60 @@
+package net.calebswalker.sharding;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.Socket;
+
+import net.calebswalker.algorithms.StandardDecompositionAlgorithm;
+
+/*
+ * Connects to a ShardCoordinator and computes whatever ranges of board sizes it is sent, with the decomposition
+ * algorithm, until it is told to quit or the connection goes away. Nothing is kept between ranges, so a worker can be
+ * killed and started again at any time.
+ */
+public class ShardWorker {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: ShardWorker <coordinator host> <coordinator port>");
+			return;
+		}
+		work(args[0], Integer.parseInt(args[1]));
+	}
+
+	public static void work(String host, int port) throws IOException {
+		try (Socket socket = new Socket(host, port)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			ShardProtocol.writeHello(out);
+
+			StandardDecompositionAlgorithm algorithm = new StandardDecompositionAlgorithm();
+			while (true) {
+				int command;
+				try {
+					command = in.readInt();
+				} catch (EOFException e) { // The coordinator is gone, there is nothing left to do
+					return;
+				}
+				if (command == ShardProtocol.QUIT)
+					return;
+				if (command != ShardProtocol.RANGE)
+					throw new IOException("Unknown command " + command + "!");
+
+				int fromSize = in.readInt();
+				int toSize = in.readInt();
+				algorithm.run(fromSize, toSize, (size, trues, falses) -> {
+					out.writeInt(ShardProtocol.BOARD);
+					out.writeInt(size);
+					ShardProtocol.writeBits(out, trues);
+					ShardProtocol.writeBits(out, falses);
+				});
+				out.writeInt(ShardProtocol.DONE);
+				out.flush();
+			}
+		}
+	}
+}
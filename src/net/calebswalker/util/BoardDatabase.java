@@ -0,0 +1,258 @@
+package net.calebswalker.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.TreeSet;
+
+/*
+ * Binary board file, memory-mapped for lookups. Layout (big endian):
+ *   magic, version
+ *   for every size n from firstSize to lastSize: trues then falses, each as (n / 64 + 1) long words (bit v = vertex v)
+ *   index: the offset of every size's record
+ *   footer: firstSize, lastSize, offset of the index, magic
+ * The index and footer go last so the file can be written while the sizes are still being computed.
+ */
+public class BoardDatabase implements Closeable {
+
+	private static final int MAGIC = 0x464D4442; // "FMDB"
+	private static final int VERSION = 1;
+	private static final int FOOTER_BYTES = 4 + 4 + 8 + 4;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int firstSize;
+	private final int lastSize;
+	private final long indexOffset;
+
+	private BoardDatabase(FileChannel channel) throws IOException {
+		this.channel = channel;
+		long length = channel.size();
+		if (length < 8 + FOOTER_BYTES || length > Integer.MAX_VALUE) {
+			throw new IOException("Not a board database!");
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+
+		int footer = (int) length - FOOTER_BYTES;
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(footer + 16) != MAGIC) {
+			throw new IOException("Not a board database!");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException("Unsupported board database version " + buffer.getInt(4) + "!");
+		}
+		firstSize = buffer.getInt(footer);
+		lastSize = buffer.getInt(footer + 4);
+		indexOffset = buffer.getLong(footer + 8);
+	}
+
+	public static BoardDatabase open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			return new BoardDatabase(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	// The last size in the file, read from the footer without mapping it, so a stale file can still be replaced
+	public static int readLastSize(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long length = channel.size();
+			if (length < 8 + FOOTER_BYTES) {
+				throw new IOException("Not a board database!");
+			}
+			ByteBuffer header = ByteBuffer.allocate(4);
+			ByteBuffer footer = ByteBuffer.allocate(FOOTER_BYTES);
+			readFully(channel, header, 0);
+			readFully(channel, footer, length - FOOTER_BYTES);
+			if (header.getInt(0) != MAGIC || footer.getInt(16) != MAGIC) {
+				throw new IOException("Not a board database!");
+			}
+			return footer.getInt(4);
+		}
+	}
+
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Not a board database!");
+			}
+		}
+	}
+
+	public int getFirstSize() {
+		return firstSize;
+	}
+
+	public int getLastSize() {
+		return lastSize;
+	}
+
+	public boolean contains(int size) {
+		return size >= firstSize && size <= lastSize;
+	}
+
+	private static int wordsFor(int size) {
+		return size / 64 + 1;
+	}
+
+	private int recordOffset(int size) {
+		if (!contains(size)) {
+			throw new IllegalArgumentException("Board size " + size + " is not in the database!");
+		}
+		return (int) buffer.getLong((int) indexOffset + (size - firstSize) * 8);
+	}
+
+	private LongBuffer words(int size, boolean trues) {
+		int offset = recordOffset(size) + (trues ? 0 : wordsFor(size) * 8);
+		ByteBuffer slice = buffer.duplicate();
+		slice.position(offset);
+		slice.limit(offset + wordsFor(size) * 8);
+		return slice.slice().asLongBuffer();
+	}
+
+	// Reads the bit straight out of the mapped file
+	public boolean isTrue(int size, int v) {
+		return testBit(size, v, true);
+	}
+
+	public boolean isFalse(int size, int v) {
+		return testBit(size, v, false);
+	}
+
+	private boolean testBit(int size, int v, boolean trues) {
+		int offset = recordOffset(size) + (trues ? 0 : wordsFor(size) * 8);
+		if (v < 1 || v > size)
+			return false;
+		return (buffer.getLong(offset + (v >> 6) * 8) & (1L << v)) != 0;
+	}
+
+	public BitSet truesOf(int size) {
+		return BitSet.valueOf(words(size, true));
+	}
+
+	public BitSet falsesOf(int size) {
+		return BitSet.valueOf(words(size, false));
+	}
+
+	public TreeSet<Integer> getTrues(int size) {
+		return BoardResults.toTreeSet(truesOf(size));
+	}
+
+	public TreeSet<Integer> getFalses(int size) {
+		return BoardResults.toTreeSet(falsesOf(size));
+	}
+
+	public Checkpoint getLastBoard() {
+		return Checkpoint.ofBoard(lastSize, truesOf(lastSize), falsesOf(lastSize));
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	// Converts a text board file ("Size: n", "Trues: [..]", "Falses: [..]", separator) into a board database
+	public static void convert(Path textFile, Path databaseFile) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(textFile); Writer writer = new Writer(databaseFile)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.startsWith("Size: "))
+					continue;
+				int size = Integer.parseInt(line.substring("Size: ".length()).trim());
+				BitSet trues = BoardResults.toBitSet(FileHelper.parseValues(reader.readLine()));
+				BitSet falses = BoardResults.toBitSet(FileHelper.parseValues(reader.readLine()));
+				writer.accept(size, trues, falses);
+			}
+			writer.finish();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.err.println("Usage: BoardDatabase <text board file> <database file>");
+			return;
+		}
+		convert(Paths.get(args[0]), Paths.get(args[1]));
+	}
+
+	// Streams consecutive board sizes into a new database file. The index is only written by finish, so a writer that is
+	// closed without it, because generating the boards failed, leaves a file that does not open as a database.
+	public static class Writer implements BoardResultSink, Closeable {
+
+		private final DataOutputStream out;
+		private final List<Long> offsets = new ArrayList<>();
+		private long position;
+		private int firstSize;
+		private int lastSize;
+		private boolean finished;
+
+		public Writer(Path file) throws IOException {
+			out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			position = 8;
+		}
+
+		@Override
+		public void accept(int size, BitSet trues, BitSet falses) throws IOException {
+			if (finished) {
+				throw new IllegalStateException("The database is already finished!");
+			}
+			if (!offsets.isEmpty() && size != lastSize + 1) {
+				throw new IllegalArgumentException("Expected board size " + (lastSize + 1) + " but got " + size + "!");
+			}
+			if (offsets.isEmpty())
+				firstSize = size;
+			lastSize = size;
+
+			offsets.add(position);
+			writeWords(trues, wordsFor(size));
+			writeWords(falses, wordsFor(size));
+		}
+
+		private void writeWords(BitSet bits, int count) throws IOException {
+			long[] words = bits.toLongArray();
+			if (words.length > count) {
+				throw new IllegalArgumentException("Board contains a vertex bigger than its size!");
+			}
+			for (int i = 0; i < count; i++)
+				out.writeLong(i < words.length ? words[i] : 0);
+			position += count * 8L;
+		}
+
+		// Writes the index and footer after the last size
+		public void finish() throws IOException {
+			if (finished)
+				return;
+			long indexOffset = position;
+			for (long offset : offsets)
+				out.writeLong(offset);
+			out.writeInt(firstSize);
+			out.writeInt(lastSize);
+			out.writeLong(indexOffset);
+			out.writeInt(MAGIC);
+			out.flush();
+			finished = true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+}
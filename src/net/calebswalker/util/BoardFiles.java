@@ -0,0 +1,77 @@
+package net.calebswalker.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+/*
+ * "F&M Boards 4-N.txt" and its board database in a directory, written as one. Both go to temporary files first and
+ * are only moved into place by commit, so a run that fails leaves nothing behind, and files that already exist are
+ * never overwritten.
+ */
+public class BoardFiles implements BoardResultSink, Closeable {
+
+	private final Path textFile;
+	private final Path databaseFile;
+	private final Path textTemp;
+	private final Path databaseTemp;
+	private final BoardTextWriter text;
+	private final BoardDatabase.Writer database;
+	private boolean committed;
+
+	public BoardFiles(Path directory, int maxSize) throws IOException {
+		textFile = directory.resolve("F&M Boards 4-" + maxSize + ".txt");
+		databaseFile = directory.resolve("F&M Boards 4-" + maxSize + ".fmdb");
+		for (Path file : new Path[] { textFile, databaseFile }) {
+			if (Files.exists(file))
+				throw new FileAlreadyExistsException(file.toString(), null, "Will not overwrite existing boards!");
+		}
+
+		Files.createDirectories(directory);
+		textTemp = directory.resolve(textFile.getFileName() + ".tmp");
+		databaseTemp = directory.resolve(databaseFile.getFileName() + ".tmp");
+		text = new BoardTextWriter(textTemp);
+		database = new BoardDatabase.Writer(databaseTemp);
+	}
+
+	public Path getTextFile() {
+		return textFile;
+	}
+
+	public Path getDatabaseFile() {
+		return databaseFile;
+	}
+
+	@Override
+	public void accept(int size, BitSet trues, BitSet falses) throws IOException {
+		text.accept(size, trues, falses);
+		database.accept(size, trues, falses);
+	}
+
+	// Finishes both files and moves them into place; fails rather than replace a file that appeared in the meantime
+	public void commit() throws IOException {
+		database.finish();
+		text.close();
+		database.close();
+		Files.move(textTemp, textFile);
+		Files.move(databaseTemp, databaseFile);
+		committed = true;
+	}
+
+	// Without a commit, throws away whatever was written
+	@Override
+	public void close() throws IOException {
+		if (committed)
+			return;
+		try {
+			text.close();
+			database.close();
+		} finally {
+			Files.deleteIfExists(textTemp);
+			Files.deleteIfExists(databaseTemp);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package net.calebswalker.util;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/*
+ * Receives the trues and falses of each board size as soon as an algorithm finishes it, in increasing size order.
+ * The sets are handed over as copies the algorithm no longer touches, so a sink may keep or modify them.
+ */
+public interface BoardResultSink {
+
+	void accept(int size, BitSet trues, BitSet falses) throws IOException;
+
+	// Collects every size into the old size -> set maps
+	static BoardResultSink toMaps(TreeMap<Integer, TreeSet<Integer>> totalTrues, TreeMap<Integer, TreeSet<Integer>> totalFalses) {
+		return (size, trues, falses) -> {
+			totalTrues.put(size, BoardResults.toTreeSet(trues));
+			totalFalses.put(size, BoardResults.toTreeSet(falses));
+		};
+	}
+
+	// Passes every size on to both sinks, each with its own copy of the sets
+	default BoardResultSink andThen(BoardResultSink next) {
+		return (size, trues, falses) -> {
+			BitSet nextTrues = (BitSet) trues.clone();
+			BitSet nextFalses = (BitSet) falses.clone();
+			accept(size, trues, falses);
+			next.accept(size, nextTrues, nextFalses);
+		};
+	}
+}
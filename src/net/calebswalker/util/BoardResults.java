@@ -0,0 +1,235 @@
+package net.calebswalker.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+
+/*
+ * The trues and falses of consecutive board sizes. Only the vertices that changed status since the previous size are
+ * kept, plus a full snapshot every SNAPSHOT_INTERVAL sizes, so any size can be rebuilt by replaying a few deltas.
+ */
+public class BoardResults implements BoardResultSink {
+
+	private static final int SNAPSHOT_INTERVAL = 64;
+
+	private int firstSize = 0;
+	private int lastSize = 0;
+
+	private final BitSet currentTrues = new BitSet();
+	private final BitSet currentFalses = new BitSet();
+
+	// For each size: the number of trues that flipped, then the flipped trues, then the flipped falses
+	private final List<int[]> deltas = new ArrayList<>();
+	private final List<BitSet[]> snapshots = new ArrayList<>();
+
+	public int getFirstSize() {
+		return firstSize;
+	}
+
+	public int getLastSize() {
+		return lastSize;
+	}
+
+	public boolean isEmpty() {
+		return deltas.isEmpty();
+	}
+
+	public boolean contains(int size) {
+		return !isEmpty() && size >= firstSize && size <= lastSize;
+	}
+
+	public int sizeCount() {
+		return deltas.size();
+	}
+
+	// Sizes have to be recorded one after another, starting from any size
+	public void record(int size, BitSet trues, BitSet falses) {
+		if (!isEmpty() && size != lastSize + 1) {
+			throw new IllegalArgumentException("Expected board size " + (lastSize + 1) + " but got " + size + "!");
+		}
+
+		BitSet trueFlips = (BitSet) currentTrues.clone();
+		trueFlips.xor(trues);
+		BitSet falseFlips = (BitSet) currentFalses.clone();
+		falseFlips.xor(falses);
+
+		int trueCount = trueFlips.cardinality();
+		int[] delta = new int[1 + trueCount + falseFlips.cardinality()];
+		delta[0] = trueCount;
+		int i = 1;
+		for (int v = trueFlips.nextSetBit(0); v >= 0; v = trueFlips.nextSetBit(v + 1))
+			delta[i++] = v;
+		for (int v = falseFlips.nextSetBit(0); v >= 0; v = falseFlips.nextSetBit(v + 1))
+			delta[i++] = v;
+
+		currentTrues.xor(trueFlips);
+		currentFalses.xor(falseFlips);
+
+		if (isEmpty())
+			firstSize = size;
+		lastSize = size;
+
+		if (deltas.size() % SNAPSHOT_INTERVAL == 0)
+			snapshots.add(new BitSet[] { (BitSet) currentTrues.clone(), (BitSet) currentFalses.clone() });
+		deltas.add(delta);
+	}
+
+	@Override
+	public void accept(int size, BitSet trues, BitSet falses) {
+		record(size, trues, falses);
+	}
+
+	public void record(int size, Set<Integer> trues, Set<Integer> falses) {
+		record(size, toBitSet(trues), toBitSet(falses));
+	}
+
+	public BitSet truesAt(int size) {
+		return rebuild(size, true);
+	}
+
+	public BitSet falsesAt(int size) {
+		return rebuild(size, false);
+	}
+
+	public TreeSet<Integer> getTrues(int size) {
+		return toTreeSet(truesAt(size));
+	}
+
+	public TreeSet<Integer> getFalses(int size) {
+		return toTreeSet(falsesAt(size));
+	}
+
+	private BitSet rebuild(int size, boolean trues) {
+		if (!contains(size)) {
+			throw new IllegalArgumentException("No results for board size " + size + "!");
+		}
+
+		int index = size - firstSize;
+		int snapshot = index / SNAPSHOT_INTERVAL;
+		BitSet set = (BitSet) snapshots.get(snapshot)[trues ? 0 : 1].clone();
+		for (int i = snapshot * SNAPSHOT_INTERVAL + 1; i <= index; i++) {
+			int[] delta = deltas.get(i);
+			int from = trues ? 1 : 1 + delta[0];
+			int to = trues ? 1 + delta[0] : delta.length;
+			for (int j = from; j < to; j++)
+				set.flip(delta[j]);
+		}
+		return set;
+	}
+
+	// Read-only size -> set maps that decode each size when it is asked for, for code written against the TreeMap results
+	public Map<Integer, TreeSet<Integer>> truesView() {
+		return new ResultView(true);
+	}
+
+	public Map<Integer, TreeSet<Integer>> falsesView() {
+		return new ResultView(false);
+	}
+
+	public static BitSet toBitSet(Set<Integer> set) {
+		BitSet bits = new BitSet();
+		for (int v : set)
+			bits.set(v);
+		return bits;
+	}
+
+	public static TreeSet<Integer> toTreeSet(BitSet bits) {
+		TreeSet<Integer> set = new TreeSet<>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+			set.add(i);
+		return set;
+	}
+
+	private final class ResultView extends AbstractMap<Integer, TreeSet<Integer>> {
+
+		private final boolean trues;
+
+		private ResultView(boolean trues) {
+			this.trues = trues;
+		}
+
+		@Override
+		public int size() {
+			return sizeCount();
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return key instanceof Integer && contains((Integer) key);
+		}
+
+		@Override
+		public TreeSet<Integer> get(Object key) {
+			if (!containsKey(key))
+				return null;
+			return toTreeSet(rebuild((Integer) key, trues));
+		}
+
+		// Iterating the keys alone never decodes a size
+		@Override
+		public Set<Integer> keySet() {
+			return new AbstractSet<Integer>() {
+				@Override
+				public Iterator<Integer> iterator() {
+					return new Iterator<Integer>() {
+						private int next = firstSize;
+
+						@Override
+						public boolean hasNext() {
+							return !isEmpty() && next <= lastSize;
+						}
+
+						@Override
+						public Integer next() {
+							if (!hasNext())
+								throw new NoSuchElementException();
+							return next++;
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return sizeCount();
+				}
+			};
+		}
+
+		@Override
+		public Set<Map.Entry<Integer, TreeSet<Integer>>> entrySet() {
+			return new AbstractSet<Map.Entry<Integer, TreeSet<Integer>>>() {
+				@Override
+				public Iterator<Map.Entry<Integer, TreeSet<Integer>>> iterator() {
+					return new Iterator<Map.Entry<Integer, TreeSet<Integer>>>() {
+						private int next = firstSize;
+
+						@Override
+						public boolean hasNext() {
+							return !isEmpty() && next <= lastSize;
+						}
+
+						@Override
+						public Map.Entry<Integer, TreeSet<Integer>> next() {
+							if (!hasNext())
+								throw new NoSuchElementException();
+							int size = next++;
+							return new AbstractMap.SimpleImmutableEntry<>(size, get(size));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return sizeCount();
+				}
+			};
+		}
+	}
+}
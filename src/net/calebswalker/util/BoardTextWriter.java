@@ -0,0 +1,56 @@
+package net.calebswalker.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.BitSet;
+
+// Writes boards in the text format of the reference file, one block per size as it arrives
+public class BoardTextWriter implements BoardResultSink, Closeable {
+
+	private final PrintWriter writer;
+	private boolean firstLine = true;
+
+	public BoardTextWriter(Path file) throws IOException {
+		writer = new PrintWriter(Files.newBufferedWriter(file));
+	}
+
+	@Override
+	public void accept(int size, BitSet trues, BitSet falses) throws IOException {
+		printLine("Size: " + size);
+		printLine("Trues: " + format(trues));
+		printLine("Falses: " + format(falses));
+		printLine("=========================");
+		if (writer.checkError())
+			throw new IOException("Could not write board " + size + "!");
+	}
+
+	// Lines are separated rather than terminated, and by CRLF on every platform, like the reference file
+	private void printLine(String line) {
+		if (!firstLine)
+			writer.print("\r\n");
+		firstLine = false;
+		writer.print(line);
+	}
+
+	// Same as TreeSet.toString()
+	private static String format(BitSet bits) {
+		StringBuilder builder = new StringBuilder("[");
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			if (builder.length() > 1)
+				builder.append(", ");
+			builder.append(i);
+		}
+		return builder.append(']').toString();
+	}
+
+	@Override
+	public void close() throws IOException {
+		boolean failed = writer.checkError(); // Flushes what is left
+		writer.close();
+		if (failed)
+			throw new IOException("Could not write the boards!");
+	}
+}
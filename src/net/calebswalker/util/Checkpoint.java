@@ -0,0 +1,121 @@
+package net.calebswalker.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/*
+ * What the conserved algorithms carry from one board size to the next: the last completed size, its trues and falses,
+ * and the maximum matching the next size starts from. Stored as magic, version, size, matching size, the trues and
+ * falses as long words, then the mates of 0..size. A checkpoint made from a known board alone has no matching (size -1).
+ */
+public class Checkpoint {
+
+	private static final int MAGIC = 0x464D4350; // "FMCP"
+	private static final int VERSION = 1;
+
+	private final int size;
+	private final BitSet trues;
+	private final BitSet falses;
+	private final int[] mates;
+	private final int matchingSize;
+
+	public Checkpoint(int size, BitSet trues, BitSet falses, int[] mates, int matchingSize) {
+		this.size = size;
+		this.trues = (BitSet) trues.clone();
+		this.falses = (BitSet) falses.clone();
+		this.mates = mates == null ? null : Arrays.copyOf(mates, size + 1);
+		this.matchingSize = mates == null ? -1 : matchingSize;
+	}
+
+	// A board whose results are known (for example from a board file), leaving the matching to whoever continues from it
+	public static Checkpoint ofBoard(int size, BitSet trues, BitSet falses) {
+		return new Checkpoint(size, trues, falses, null, -1);
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public BitSet getTrues() {
+		return (BitSet) trues.clone();
+	}
+
+	public BitSet getFalses() {
+		return (BitSet) falses.clone();
+	}
+
+	public boolean hasMatching() {
+		return mates != null;
+	}
+
+	public int getMatchingSize() {
+		return matchingSize;
+	}
+
+	public void copyMatesInto(int[] dest) {
+		System.arraycopy(mates, 0, dest, 0, mates.length);
+	}
+
+	// Writes next to the old checkpoint and then replaces it, so a crash mid-write leaves the previous one intact
+	public void write(Path file) throws IOException {
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(size);
+			out.writeInt(matchingSize);
+			writeBits(out, trues);
+			writeBits(out, falses);
+			if (mates != null) {
+				for (int mate : mates)
+					out.writeInt(mate);
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	public static Checkpoint read(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != MAGIC)
+				throw new IOException(file + " is not a checkpoint file!");
+			int version = in.readInt();
+			if (version != VERSION)
+				throw new IOException("Unsupported checkpoint version " + version + "!");
+
+			int size = in.readInt();
+			int matchingSize = in.readInt();
+			BitSet trues = readBits(in);
+			BitSet falses = readBits(in);
+			int[] mates = null;
+			if (matchingSize >= 0) {
+				mates = new int[size + 1];
+				for (int i = 0; i <= size; i++)
+					mates[i] = in.readInt();
+			}
+
+			return new Checkpoint(size, trues, falses, mates, matchingSize);
+		}
+	}
+
+	private static void writeBits(DataOutputStream out, BitSet bits) throws IOException {
+		long[] words = bits.toLongArray();
+		out.writeInt(words.length);
+		for (long word : words)
+			out.writeLong(word);
+	}
+
+	private static BitSet readBits(DataInputStream in) throws IOException {
+		long[] words = new long[in.readInt()];
+		for (int i = 0; i < words.length; i++)
+			words[i] = in.readLong();
+		return BitSet.valueOf(words);
+	}
+}
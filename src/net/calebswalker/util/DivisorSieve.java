@@ -0,0 +1,136 @@
+package net.calebswalker.util;
+
+import java.util.Arrays;
+
+/*
+ * Smallest-prime-factor sieve, so the divisors of any number up to the limit can be listed from its factorisation
+ * instead of by trial division. A primality bitmap is kept alongside it. The limit grows on demand.
+ */
+public class DivisorSieve {
+
+	private static DivisorSieve shared;
+
+	// Replaced as a whole when the limit grows, so reads need no lock
+	private static final class Tables {
+		final int limit;
+		final int[] smallestPrimeFactor;
+		final long[] primeBits;
+
+		Tables(int limit, int[] smallestPrimeFactor, long[] primeBits) {
+			this.limit = limit;
+			this.smallestPrimeFactor = smallestPrimeFactor;
+			this.primeBits = primeBits;
+		}
+	}
+
+	private volatile Tables tables = new Tables(0, new int[0], new long[0]);
+
+	public DivisorSieve(int limit) {
+		ensureLimit(Math.max(1, limit));
+	}
+
+	// One sieve for every algorithm run in this JVM, grown to at least limit
+	public static synchronized DivisorSieve shared(int limit) {
+		if (shared == null)
+			shared = new DivisorSieve(limit);
+		shared.ensureLimit(limit);
+		return shared;
+	}
+
+	public int getLimit() {
+		return tables.limit;
+	}
+
+	public void ensureLimit(int n) {
+		tablesFor(n);
+	}
+
+	private Tables tablesFor(int n) {
+		Tables current = tables;
+		if (n > current.limit)
+			current = grow(n);
+		return current;
+	}
+
+	private synchronized Tables grow(int n) {
+		Tables old = tables;
+		if (n > old.limit)
+			tables = sieve(old, Math.max(n, old.limit * 2));
+		return tables;
+	}
+
+	private static Tables sieve(Tables old, int newLimit) {
+		int[] spf = Arrays.copyOf(old.smallestPrimeFactor, newLimit + 1);
+		for (int i = 2; i <= newLimit; i++) {
+			if (spf[i] == 0)
+				spf[i] = i;
+			if (spf[i] != i)
+				continue;
+			// i is prime; only multiples above the old limit still need marking
+			long start = Math.max((long) i * i, ((long) old.limit / i + 1) * i);
+			for (long m = start; m <= newLimit; m += i) {
+				if (spf[(int) m] == 0)
+					spf[(int) m] = i;
+			}
+		}
+
+		long[] bits = new long[(newLimit >> 6) + 1];
+		for (int i = 2; i <= newLimit; i++) {
+			if (spf[i] == i)
+				bits[i >> 6] |= 1L << i;
+		}
+
+		return new Tables(newLimit, spf, bits);
+	}
+
+	public int smallestPrimeFactor(int n) {
+		return tablesFor(n).smallestPrimeFactor[n];
+	}
+
+	public boolean isPrime(int n) {
+		if (n < 2)
+			return false;
+		return (tablesFor(n).primeBits[n >> 6] & (1L << n)) != 0;
+	}
+
+	public int divisorCountOf(int n) {
+		int[] smallestPrimeFactor = tablesFor(n).smallestPrimeFactor;
+		int count = 1;
+		while (n > 1) {
+			int p = smallestPrimeFactor[n];
+			int exponent = 0;
+			while (n % p == 0) {
+				n /= p;
+				exponent++;
+			}
+			count *= exponent + 1;
+		}
+		return count;
+	}
+
+	/*
+	 * Writes the divisors of n other than n itself into out starting at offset, and returns how many were written.
+	 * out needs room for divisorCountOf(n) values from offset (the last slot is used as scratch for n itself).
+	 */
+	public int properDivisorsOf(int n, int[] out, int offset) {
+		int[] smallestPrimeFactor = tablesFor(n).smallestPrimeFactor;
+		int count = 1;
+		out[offset] = 1;
+
+		int rest = n;
+		while (rest > 1) {
+			int p = smallestPrimeFactor[rest];
+			int previous = count;
+			int power = 1;
+			while (rest % p == 0) {
+				rest /= p;
+				power *= p;
+				for (int i = 0; i < previous; i++)
+					out[offset + count++] = out[offset + i] * power;
+			}
+		}
+
+		// The divisors are generated so that n itself always comes last
+		return count - 1;
+	}
+}
@@ -1,40 +1,85 @@
 package net.calebswalker.util;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Arrays;
-import java.util.List;
 import java.util.TreeSet;
 
 public class FileHelper {
 	
 	private FileHelper() {}
 	
-	private static List<String> lines;
+	private static BoardDatabase database;
 	
 	private static final int MAX_SIZE = 1000;
+	private static final String TEXT_FILE = "F&M Boards 4-" + MAX_SIZE + ".txt";
+	private static final String DATABASE_FILE = "F&M Boards 4-" + MAX_SIZE + ".fmdb";
 	
 	private static void loadFile() {
-		if (lines != null)
+		if (database != null)
 			return;
 		try {
-			lines = Files.readAllLines(Paths.get("F&M Boards 4-" + MAX_SIZE + ".txt"));
+			Path textFile = Paths.get(TEXT_FILE);
+			Path databaseFile = Paths.get(DATABASE_FILE);
+			database = openIfCurrent(databaseFile, textFile);
+			if (database == null) { // Converted from the text file whenever it is missing or out of date
+				Path temp = Paths.get(DATABASE_FILE + ".tmp");
+				BoardDatabase.convert(textFile, temp);
+				Files.move(temp, databaseFile, StandardCopyOption.REPLACE_EXISTING);
+				database = BoardDatabase.open(databaseFile);
+			}
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
 	}
 	
+	// The database converted from the text file, or null if it does not exist, is older than the text file or ends at a
+	// different size
+	private static BoardDatabase openIfCurrent(Path databaseFile, Path textFile) throws IOException {
+		if (!Files.exists(databaseFile)
+				|| Files.getLastModifiedTime(databaseFile).compareTo(Files.getLastModifiedTime(textFile)) < 0)
+			return null;
+		
+		int lastSize;
+		try { // Only the footer is read, as a mapped file could not be replaced on every platform
+			lastSize = BoardDatabase.readLastSize(databaseFile);
+		} catch (IOException e) { // Not even a database, most likely cut off while being written
+			return null;
+		}
+		if (lastSize != readLastBoard(textFile).getSize())
+			return null;
+		return BoardDatabase.open(databaseFile);
+	}
+	
 	public static void init() {
 		loadFile();
 	}
 	
+	// Serves boards from another database instead, for example one written by the board generator
+	public static void init(Path databaseFile) throws IOException {
+		BoardDatabase opened = BoardDatabase.open(databaseFile);
+		if (database != null)
+			database.close();
+		database = opened;
+	}
+	
+	public static int getMaxSize() {
+		loadFile();
+		return database.getLastSize();
+	}
+	
 	public static TreeSet<Integer> getTrues(int boardSize) {
 		if (boardSize <= 0) {
 			throw new IllegalArgumentException("boardSize must be a postive number!");
 		}
-		else if (boardSize > MAX_SIZE) {
-			throw new IllegalArgumentException("boardSize cannot exceed " + MAX_SIZE + "!");
+		else if (boardSize > getMaxSize()) {
+			throw new IllegalArgumentException("boardSize cannot exceed " + getMaxSize() + "!");
 		}
 		
 		switch(boardSize) {
@@ -52,18 +97,7 @@ public class FileHelper {
 	private static TreeSet<Integer> getOtherTrues(int boardSize) {
 		loadFile();
 		
-		String trues = lines.get((boardSize - 4) * 4 + 1);
-		String trueValues = trues.substring(trues.indexOf('[') + 1, trues.indexOf(']'));
-		String[] values = trueValues.split(", ");
-		
-		TreeSet<Integer> set = new TreeSet<>();
-		for (String string : values) {
-			if (string.equals(""))
-				continue;
-			set.add(Integer.parseInt(string));
-		}
-		
-		return set;
+		return database.getTrues(boardSize);
 	}
 	
 	public static TreeSet<Integer> getFalses(int boardSize) {
@@ -86,16 +120,54 @@ public class FileHelper {
 	private static TreeSet<Integer> getOtherFalses(int boardSize) {
 		loadFile();
 		
-		String falses = lines.get((boardSize - 4) * 4 + 2);
-		String falseValues = falses.substring(falses.indexOf('[') + 1, falses.indexOf(']'));
-		String[] values = falseValues.split(", ");
+		return database.getFalses(boardSize);
+	}
+	
+	static TreeSet<Integer> parseValues(String line) {
+		String values = line.substring(line.indexOf('[') + 1, line.indexOf(']'));
 		
 		TreeSet<Integer> set = new TreeSet<>();
-		for (String string : values) {
+		for (String string : values.split(", ")) {
+			if (string.equals(""))
+				continue;
 			set.add(Integer.parseInt(string));
 		}
 		
 		return set;
 	}
+	
+	// The biggest board in the reference data, for an algorithm to continue from
+	public static Checkpoint getLastBoard() {
+		loadFile();
+		return database.getLastBoard();
+	}
+	
+	// The last board of any file written in the same format as the reference file, read backwards from its end so only
+	// the tail of a large file is ever in memory
+	public static Checkpoint readLastBoard(Path file) throws IOException {
+		try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+			long length = channel.size();
+			for (long tail = 1 << 16; ; tail *= 2) {
+				int count = (int) Math.min(length, tail);
+				ByteBuffer bytes = ByteBuffer.allocate(count);
+				channel.position(length - count);
+				while (bytes.hasRemaining() && channel.read(bytes) >= 0);
+				
+				String[] lines = new String(bytes.array(), 0, bytes.position(), StandardCharsets.UTF_8).split("\\r?\\n");
+				int first = count < length ? 1 : 0; // The first line may have been cut off
+				for (int i = lines.length - 3; i >= first; i--) {
+					String line = lines[i];
+					if (line.startsWith("Size: ")) {
+						int size = Integer.parseInt(line.substring("Size: ".length()).trim());
+						TreeSet<Integer> trues = parseValues(lines[i + 1]);
+						TreeSet<Integer> falses = parseValues(lines[i + 2]);
+						return Checkpoint.ofBoard(size, BoardResults.toBitSet(trues), BoardResults.toBitSet(falses));
+					}
+				}
+				if (count == length)
+					throw new IOException("No boards found in " + file + "!");
+			}
+		}
+	}
 
 }